@@ -0,0 +1,91 @@
+package com.casejoin.productInventory.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.casejoin.productInventory.ProductInventoryApplication;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.service.ProductImportService;
+
+/**
+ * Starts the application for benchmarks: no SQL logging and a private
+ * in-memory database per benchmark trial.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Starts the application context, without a web server.
+     *
+     * @param properties extra properties, as {@code key=value} pairs
+     * @return the started application context
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        return run(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Starts the application context with a web server on a random port.
+     *
+     * @param properties extra properties, as {@code key=value} pairs
+     * @return the started application context
+     */
+    static ConfigurableApplicationContext startServer(String... properties) {
+        return run(WebApplicationType.SERVLET,
+                Stream.concat(Stream.of("server.port=0"), Stream.of(properties)).toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType type, String... properties) {
+        // Devtools is on the runtime classpath, its restarter would relaunch the caller
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        SpringApplication application = new SpringApplication(ProductInventoryApplication.class);
+        application.setWebApplicationType(type);
+
+        String[] defaults = {
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:bench_" + UUID.randomUUID() + ";DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN" };
+
+        return application.run(Stream.concat(Stream.of(defaults), Stream.of(properties).map(p -> "--" + p))
+                .toArray(String[]::new));
+    }
+
+    /**
+     * Generates a product. Products are spread evenly over categories, 50 brands
+     * and prices from 1.00 to 1000.00.
+     *
+     * @param i the product number
+     * @return the product
+     */
+    static ProductDto product(int i) {
+        Category[] categories = Category.values();
+        return new ProductDto(null, "Product " + i, "Description " + i, "Brand " + (i % 50),
+                categories[i % categories.length], i % 100, BigDecimal.valueOf(100 + i % 1000 * 100, 2), null, null);
+    }
+
+    /**
+     * Seeds the database with generated products through the bulk import.
+     *
+     * @param context the application context
+     * @param rows    the number of products to create
+     */
+    static void seed(ConfigurableApplicationContext context, int rows) {
+        Iterator<ProductDto> products = IntStream.range(0, rows).mapToObj(BenchmarkApplication::product).iterator();
+        context.getBean(ProductImportService.class).importProducts(products);
+    }
+}
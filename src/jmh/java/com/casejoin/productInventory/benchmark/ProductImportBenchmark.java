@@ -0,0 +1,107 @@
+package com.casejoin.productInventory.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.casejoin.productInventory.dto.BulkImportResultDto;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
+import com.casejoin.productInventory.exception.RequiredArgumentsMissing;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductImportService;
+import com.casejoin.productInventory.service.ProductService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the throughput, in rows per second, of the bulk import path with
+ * one {@link ProductService#createProduct(ProductDto)} call per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductImportBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({ "100", "1000" })
+    private int chunkSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductImportService productImportService;
+    private ProductRepository productRepository;
+    private ObjectMapper objectMapper;
+
+    private List<ProductDto> products;
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start("product.import.chunk-size=" + chunkSize);
+        productService = context.getBean(ProductService.class);
+        productImportService = context.getBean(ProductImportService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        products = new ArrayList<>(ROWS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < ROWS; i++) {
+            ProductDto product = BenchmarkApplication.product(i);
+            products.add(product);
+            objectMapper.writeValue(out, product);
+            out.write('\n');
+        }
+        ndjson = out.toByteArray();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearProducts() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BulkImportResultDto bulkImport() throws IOException {
+        try (MappingIterator<ProductDto> rows = objectMapper.readerFor(ProductDto.class)
+                .readValues(new ByteArrayInputStream(ndjson))) {
+            return productImportService.importProducts(rows);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singleRow() throws RequiredArgumentsMissing, InvalidArgumentException {
+        for (ProductDto product : products) {
+            productService.createProduct(product);
+        }
+    }
+}
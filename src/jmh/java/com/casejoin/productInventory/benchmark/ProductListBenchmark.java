@@ -0,0 +1,86 @@
+package com.casejoin.productInventory.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductService;
+
+/**
+ * Compares reading a list page as managed entities mapped to
+ * {@link ProductDto} with reading it through the DTO projection. Run with
+ * {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductListBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({ "10", "100" })
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private TransactionTemplate readOnlyTransaction;
+
+    private Specification<Product> specification;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, ROWS);
+        productRepository = context.getBean(ProductRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        specification = (root, query, builder) -> builder.equal(root.get("category"), Category.GAMES);
+        pageable = PageRequest.of(2, pageSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> entities() {
+        return readOnlyTransaction.execute(status -> productRepository.findAll(specification, pageable).stream()
+                .map(ProductService::toDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<ProductDto> projection() {
+        return productRepository.findAllAsDto(specification, pageable);
+    }
+}
@@ -0,0 +1,134 @@
+package com.casejoin.productInventory.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.repository.ProductRepository;
+
+/**
+ * Closed-loop HTTP load test comparing platform request threads with the
+ * {@code virtual} profile.
+ * <p>
+ * For each mode the application is started on a random port and seeded, then
+ * every concurrency level is run for a fixed duration, each client issuing
+ * list requests (70%) and detail requests (30%) back to back. Latency
+ * percentiles, throughput and non-200 responses are printed per level.
+ * <p>
+ * Arguments: {@code [seconds per level] [concurrency levels...]}, by default
+ * {@code 10 50 200 800}.
+ */
+public final class ProductLoadTest {
+
+    private static final int PRODUCTS = 10_000;
+
+    private ProductLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int[] levels = args.length > 1 ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[] { 50, 200, 800 };
+
+        System.out.printf("%-9s %11s %10s %10s %10s %10s %8s%n", "mode", "concurrency", "requests", "rps",
+                "p50 (ms)", "p99 (ms)", "errors");
+
+        for (String mode : List.of("platform", "virtual")) {
+            String profile = mode.equals("virtual") ? "spring.profiles.active=virtual"
+                    : "spring.threads.virtual.enabled=false";
+            try (ConfigurableApplicationContext context = BenchmarkApplication.startServer(profile)) {
+                BenchmarkApplication.seed(context, PRODUCTS);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                List<UUID> ids = context.getBean(ProductRepository.class)
+                        .findAllAsDto(null, PageRequest.of(0, 1000)).stream().map(ProductDto::id).toList();
+
+                // Warm-up
+                run(port, ids, levels[0], Duration.ofSeconds(Math.min(seconds, 5)));
+
+                for (int concurrency : levels) {
+                    Result result = run(port, ids, concurrency, Duration.ofSeconds(seconds));
+                    System.out.printf("%-9s %11d %10d %10.0f %10.2f %10.2f %8d%n", mode, concurrency,
+                            result.latencies.length, result.latencies.length / (double) seconds,
+                            result.percentile(0.50), result.percentile(0.99), result.errors);
+                }
+            }
+        }
+    }
+
+    private static Result run(int port, List<UUID> ids, int concurrency, Duration duration) throws Exception {
+        String base = "http://localhost:" + port + "/api/v1/product";
+        Category[] categories = Category.values();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+                HttpClient httpClient = HttpClient.newBuilder().executor(clients).build()) {
+            List<Future<Result>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    int errors = 0;
+                    while (System.nanoTime() < deadline) {
+                        String uri = random.nextInt(10) < 7
+                                ? base + "?category=" + categories[random.nextInt(categories.length)] + "&page="
+                                        + (1 + random.nextInt(20)) + "&pageSize=20"
+                                : base + "/" + ids.get(random.nextInt(ids.size()));
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                        if (response.statusCode() != 200) {
+                            errors++;
+                        }
+                    }
+                    return new Result(Arrays.copyOf(latencies, count), errors);
+                }));
+            }
+
+            List<long[]> latencies = new ArrayList<>(concurrency);
+            long errors = 0;
+            for (Future<Result> future : futures) {
+                Result result = future.get();
+                latencies.add(result.latencies);
+                errors += result.errors;
+            }
+            long[] merged = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(merged, errors);
+        }
+    }
+
+    private record Result(long[] latencies, long errors) {
+
+        /**
+         * @param quantile the quantile, between 0 and 1
+         * @return the latency at the quantile, in milliseconds, of sorted latencies
+         */
+        double percentile(double quantile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            return latencies[(int) Math.min(latencies.length - 1, Math.ceil(quantile * latencies.length) - 1)]
+                    / 1_000_000.0;
+        }
+    }
+}
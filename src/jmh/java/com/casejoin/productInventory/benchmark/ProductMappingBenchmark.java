@@ -0,0 +1,58 @@
+package com.casejoin.productInventory.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.service.ProductService;
+
+/**
+ * Benchmarks the entity to {@link ProductDto} mapping of a page of products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int pageSize;
+
+    private List<Product> products;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            products.add(Product.builder().id(UUID.randomUUID()).name("Product " + i).description("Description " + i)
+                    .brand("Brand " + (i % 50)).category(Category.values()[i % Category.values().length])
+                    .quantity(i % 100).priceMinor(100L + i).createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<ProductDto> toDto() {
+        return products.stream().map(ProductService::toDto).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package com.casejoin.productInventory.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+
+/**
+ * Measures the throughput of price range filters and of pages sorted by price,
+ * both served by the {@code (category, price_minor)} index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductPriceBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Width of the price range, in minor units: prices go from 1.00 to 1000.00.
+     */
+    @Param({ "1000", "100000" })
+    private long rangeWidth;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+
+    private Specification<Product> range;
+    private Specification<Product> category;
+    private Pageable unsorted;
+    private Pageable sortedByPrice;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, ROWS);
+        productRepository = context.getBean(ProductRepository.class);
+
+        long from = 50_000;
+        category = (root, query, builder) -> builder.equal(root.get("category"), Category.GAMES);
+        range = category.and((root, query, builder) -> builder.between(root.get("priceMinor"), from,
+                from + rangeWidth));
+        unsorted = PageRequest.of(0, PAGE_SIZE);
+        sortedByPrice = PageRequest.of(0, PAGE_SIZE, Sort.by("priceMinor"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> rangeFilter() {
+        return productRepository.findAllAsDto(range, unsorted);
+    }
+
+    @Benchmark
+    public List<ProductDto> sortByPrice() {
+        return productRepository.findAllAsDto(category, sortedByPrice);
+    }
+
+    @Benchmark
+    public List<ProductDto> rangeFilterSortedByPrice() {
+        return productRepository.findAllAsDto(range, sortedByPrice);
+    }
+}
@@ -0,0 +1,66 @@
+package com.casejoin.productInventory.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.dto.ProductReportDto;
+import com.casejoin.productInventory.enums.ReportGroup;
+import com.casejoin.productInventory.service.ProductReportService;
+
+/**
+ * Measures the time of a catalog-wide {@link ProductReportService} report by
+ * number of workers, the speedup curve of the parallel range scans. It cannot
+ * exceed the number of cores, nor the connections of the pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductReportBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    @Param({ "1", "2", "4", "8" })
+    private int workers;
+
+    @Param({ "CATEGORY", "BRAND" })
+    private ReportGroup groupBy;
+
+    private ConfigurableApplicationContext context;
+    private ProductReportService productReportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("product.report.workers=" + workers,
+                "product.outbox.relay.enabled=false");
+        BenchmarkApplication.seed(context, ROWS);
+        productReportService = context.getBean(ProductReportService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductReportDto getReport() {
+        return productReportService.getReport(new ProductFilterDto(), groupBy, 5);
+    }
+}
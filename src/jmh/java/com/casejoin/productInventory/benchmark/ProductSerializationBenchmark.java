@@ -0,0 +1,109 @@
+package com.casejoin.productInventory.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.casejoin.productInventory.dto.ApiResponseDto;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFields;
+import com.casejoin.productInventory.enums.Category;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Benchmarks the serialization of a list response with the ObjectMappers of
+ * the application converters, per format ({@code json} or {@code cbor}),
+ * fieldset ({@code all} or {@code sparse}, i.e. {@code fields=id,name,price})
+ * and with or without Blackbird. The setup prints the bytes on the wire of a
+ * page, plain and gzipped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int pageSize;
+
+    @Param({ "json", "cbor" })
+    private String format;
+
+    @Param({ "all", "sparse" })
+    private String fields;
+
+    @Param({ "true", "false" })
+    private boolean blackbird;
+
+    private ConfigurableApplicationContext context;
+    private ObjectWriter writer;
+    private ApiResponseDto<List<ProductDto>> response;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start("product.json.blackbird=" + blackbird);
+        Class<? extends AbstractJackson2HttpMessageConverter> converter = "cbor".equals(format)
+                ? MappingJackson2CborHttpMessageConverter.class
+                : MappingJackson2HttpMessageConverter.class;
+        writer = context.getBean(converter).getObjectMapper()
+                .writerFor(new TypeReference<ApiResponseDto<List<ProductDto>>>() {
+                })
+                .with(ProductFields.of("sparse".equals(fields) ? "id,name,price" : null));
+
+        List<ProductDto> products = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            products.add(new ProductDto(UUID.randomUUID(), "Product " + i, "Description " + i, "Brand " + (i % 50),
+                    Category.values()[i % Category.values().length], i % 100, BigDecimal.valueOf(100 + i, 2), "BRL",
+                    LocalDateTime.now(), LocalDateTime.now(), 0L));
+        }
+        response = new ApiResponseDto<>(200, null, products);
+
+        System.out.printf("%nBytes per page: %d, gzipped: %d%n", serialize().length, serializeGzipped().length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeGzipped() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            writer.writeValue(out, response);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.casejoin.productInventory.benchmark;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.CustomNotFoundException;
+import com.casejoin.productInventory.exception.RequiredArgumentsMissing;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductService;
+
+/**
+ * Benchmarks the {@link ProductService} read paths against a seeded H2
+ * database, with and without the product and product list caches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    /**
+     * Cache type, {@code caffeine} (as configured) or {@code none}, which
+     * also disables the product list cache.
+     */
+    @Param({ "caffeine", "none" })
+    private String cache;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private List<UUID> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("spring.cache.type=" + cache,
+                "product.list-cache.enabled=" + !"none".equals(cache));
+        BenchmarkApplication.seed(context, ROWS);
+        productService = context.getBean(ProductService.class);
+        // Hot set of product detail pages
+        ids = context.getBean(ProductRepository.class).findAllAsDto(null, PageRequest.of(0, 100)).stream()
+                .map(ProductDto::id).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductDto getProduct() throws RequiredArgumentsMissing, CustomNotFoundException {
+        return productService.getProduct(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    /**
+     * Representative list filters, from the unfiltered first page to a text
+     * search on a deep page.
+     */
+    @State(Scope.Benchmark)
+    public static class Filter {
+
+        @Param({ "none", "category", "categoryPrice", "name", "brandDeepPage" })
+        private String shape;
+
+        private ProductFilterDto filter;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            filter = switch (shape) {
+                case "none" -> new ProductFilterDto(null, null, null, null, null, 1, 20);
+                case "category" -> new ProductFilterDto(null, Category.GAMES, null, null, null, 1, 20);
+                case "categoryPrice" -> new ProductFilterDto(null, Category.GAMES, null, 100L, 100000L, 1, 20);
+                case "name" -> new ProductFilterDto("Product 12", null, null, 100L, 100000L, 1, 20);
+                case "brandDeepPage" -> new ProductFilterDto(null, null, "Brand 7", 100L, 100000L, 9, 20);
+                default -> throw new IllegalArgumentException(shape);
+            };
+        }
+    }
+
+    @Benchmark
+    public List<ProductDto> getProducts(Filter filter) throws CustomNotFoundException {
+        return productService.getProducts(filter.filter);
+    }
+}
@@ -0,0 +1,98 @@
+package com.casejoin.productInventory.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.CustomNotFoundException;
+import com.casejoin.productInventory.search.ProductSnapshot;
+import com.casejoin.productInventory.service.ProductService;
+
+/**
+ * Compares {@link ProductService#getProducts(ProductFilterDto)} answered by
+ * the {@link ProductSnapshot} with the Specification query path, on a large
+ * catalog and without the product list cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductSnapshotBenchmark {
+
+    @Param({ "1000000" })
+    private int rows;
+
+    /**
+     * Read engine, {@code snapshot} or {@code specification} (the database).
+     */
+    @Param({ "snapshot", "specification" })
+    private String engine;
+
+    /**
+     * Representative list filters, as in {@link ProductServiceBenchmark}, plus
+     * a name that matches nothing, which scans every candidate.
+     */
+    @Param({ "none", "category", "categoryPrice", "name", "brandDeepPage", "nameMiss" })
+    private String shape;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductFilterDto filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean snapshot = "snapshot".equals(engine);
+        context = BenchmarkApplication.start("product.list-cache.enabled=false",
+                "product.snapshot.enabled=" + snapshot, "product.outbox.relay.enabled=false");
+        BenchmarkApplication.seed(context, rows);
+        if (snapshot) {
+            // Compacts the rows seeded through change events, as on startup
+            context.getBean(ProductSnapshot.class).rebuild();
+        }
+        productService = context.getBean(ProductService.class);
+
+        filter = switch (shape) {
+            case "none" -> new ProductFilterDto(null, null, null, null, null, 1, 20);
+            case "category" -> new ProductFilterDto(null, Category.GAMES, null, null, null, 1, 20);
+            case "categoryPrice" -> new ProductFilterDto(null, Category.GAMES, null, 100L, 100000L, 1, 20);
+            case "name" -> new ProductFilterDto("Product 12", null, null, 100L, 100000L, 1, 20);
+            case "brandDeepPage" -> new ProductFilterDto(null, null, "Brand 7", 100L, 100000L, 9, 20);
+            case "nameMiss" -> new ProductFilterDto("Missing", null, null, null, null, 1, 20);
+            default -> throw new IllegalArgumentException(shape);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> getProducts() {
+        try {
+            return productService.getProducts(filter);
+        } catch (CustomNotFoundException e) {
+            // nameMiss finds nothing
+            return List.of();
+        }
+    }
+}
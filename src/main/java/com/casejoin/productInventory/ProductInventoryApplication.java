@@ -2,11 +2,13 @@ package com.casejoin.productInventory;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 
 @SpringBootApplication
+@EnableCaching
 @OpenAPIDefinition(info = @Info(title = "Product Inventory API", version = "1.0", description = "Product Inventory API"))
 public class ProductInventoryApplication {
 
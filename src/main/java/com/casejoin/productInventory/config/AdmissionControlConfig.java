@@ -0,0 +1,61 @@
+package com.casejoin.productInventory.config;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.casejoin.productInventory.filter.AdaptiveConcurrencyLimit;
+import com.casejoin.productInventory.filter.AdmissionControlFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(name = "product.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig {
+
+    /**
+     * Registers the admission control on the API endpoints, enabled by setting
+     * {@code product.admission.enabled}.
+     *
+     * @param rate          the tokens per second of each client
+     * @param burst         the tokens of a full bucket
+     * @param rowsPerToken  the page rows that cost one more token
+     * @param scanCost      the tokens of an export or a report
+     * @param maxClients    the number of client buckets kept
+     * @param taggedClients the number of clients with metrics of their own
+     * @param apiKeys       the API keys that identify a client, the others
+     *                      are identified by their address
+     * @param initialLimit  the concurrency limit until latency is measured
+     * @param minLimit      the lowest concurrency limit
+     * @param maxLimit      the highest concurrency limit
+     * @param tolerance     the latency increase tolerated before the limit
+     *                      shrinks
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            @Value("${product.admission.rate:20}") double rate,
+            @Value("${product.admission.burst:40}") int burst,
+            @Value("${product.admission.rows-per-token:25}") int rowsPerToken,
+            @Value("${product.admission.scan-cost:40}") int scanCost,
+            @Value("${product.admission.max-clients:100000}") int maxClients,
+            @Value("${product.admission.tagged-clients:50}") int taggedClients,
+            @Value("${product.admission.api-keys:}") Set<String> apiKeys,
+            @Value("${product.admission.limit.initial:20}") int initialLimit,
+            @Value("${product.admission.limit.min:4}") int minLimit,
+            @Value("${product.admission.limit.max:200}") int maxLimit,
+            @Value("${product.admission.limit.tolerance:1.5}") double tolerance,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(rate, burst, rowsPerToken, scanCost, maxClients, taggedClients, apiKeys,
+                        new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance),
+                        objectMapper, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,43 @@
+package com.casejoin.productInventory.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.casejoin.productInventory.filter.ConcurrencyLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty("product.concurrency.max-in-flight")
+public class ConcurrencyLimitConfig {
+
+    /**
+     * Registers the concurrency limit on the API endpoints, enabled by setting
+     * {@code product.concurrency.max-in-flight}.
+     * <p>
+     * The admission control ({@code product.admission.enabled}) replaces it:
+     * its adaptive limit bounds the same requests, and a fixed limit in front
+     * of it would cap the adaptive one and hide the latency it adapts to.
+     *
+     * @param maxInFlight  the maximum number of API requests processed at once
+     * @param queueTimeout how long a request may wait for a permit
+     * @return the filter registration
+     */
+    @Bean
+    @ConditionalOnProperty(name = "product.admission.enabled", havingValue = "false", matchIfMissing = true)
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${product.concurrency.max-in-flight}") int maxInFlight,
+            @Value("${product.concurrency.queue-timeout:1s}") Duration queueTimeout,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(maxInFlight, queueTimeout, objectMapper, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
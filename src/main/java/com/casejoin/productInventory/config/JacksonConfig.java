@@ -0,0 +1,135 @@
+package com.casejoin.productInventory.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFields;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Replaces the reflective property access of Jackson with generated
+     * lambdas, enabled unless {@code product.json.blackbird} is false.
+     *
+     * @return the Blackbird module, registered by Spring Boot on the
+     *         application ObjectMapper
+     */
+    @Bean
+    @ConditionalOnProperty(name = "product.json.blackbird", matchIfMissing = true)
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Attaches the sparse fieldset filter to {@link ProductDto}, serializing
+     * every field unless a request asks otherwise.
+     *
+     * @return the customizer of the application ObjectMapper
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer productFieldsCustomizer() {
+        return builder -> builder.mixIn(ProductDto.class, ProductFields.Mixin.class).filters(ProductFields.ALL);
+    }
+
+    /**
+     * Serves JSON with a Content-Length, replacing the converter of Spring Boot.
+     *
+     * @param objectMapper the application ObjectMapper
+     * @return the JSON converter
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new JsonConverter(objectMapper);
+    }
+
+    /**
+     * Serves {@code application/cbor} to clients asking for it in
+     * {@code Accept}, with the same configuration and modules as JSON.
+     *
+     * @param builder the builder of the application ObjectMapper
+     * @return the CBOR converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new CborConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Serializes a body to memory before sending it with its Content-Length.
+     * <p>
+     * Tomcat only applies {@code server.compression.min-response-size} to
+     * responses of known length and compresses every other response, however
+     * small. Bodies written by the converters are whole pages, small enough to
+     * buffer; exports stream their own bodies and do not go through them.
+     */
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+
+        private final HttpOutputMessage target;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(8192);
+
+        private BufferedOutputMessage(HttpOutputMessage target) {
+            this.target = target;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return target.getHeaders();
+        }
+
+        private void send() throws IOException {
+            target.getHeaders().setContentLength(body.size());
+            body.writeTo(target.getBody());
+        }
+    }
+
+    private static final class JsonConverter extends MappingJackson2HttpMessageConverter {
+
+        private JsonConverter(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+            BufferedOutputMessage buffered = new BufferedOutputMessage(outputMessage);
+            super.writeInternal(object, type, buffered);
+            buffered.send();
+        }
+    }
+
+    private static final class CborConverter extends MappingJackson2CborHttpMessageConverter {
+
+        private CborConverter(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+            BufferedOutputMessage buffered = new BufferedOutputMessage(outputMessage);
+            super.writeInternal(object, type, buffered);
+            buffered.send();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.casejoin.productInventory.config;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.util.Locale;
+
+import org.springframework.format.Formatter;
+
+/**
+ * Binds decimal request parameters (prices) in the notation of the request
+ * locale: {@code 10,5} for {@code pt-BR}, {@code 10.5} for {@code en}.
+ * <p>
+ * Grouping separators are not accepted, so a value written for another locale
+ * is rejected instead of silently read as a different amount.
+ */
+public class PriceFormatter implements Formatter<BigDecimal> {
+
+    @Override
+    public BigDecimal parse(String text, Locale locale) throws ParseException {
+        String value = text.strip();
+        DecimalFormat format = decimalFormat(locale);
+        ParsePosition position = new ParsePosition(0);
+        BigDecimal parsed = (BigDecimal) format.parse(value, position);
+        if (parsed == null || position.getIndex() != value.length()) {
+            throw new ParseException("Invalid decimal for locale " + locale + ": " + text,
+                    Math.max(position.getErrorIndex(), position.getIndex()));
+        }
+        return parsed;
+    }
+
+    @Override
+    public String print(BigDecimal value, Locale locale) {
+        return decimalFormat(locale).format(value);
+    }
+
+    private static DecimalFormat decimalFormat(Locale locale) {
+        DecimalFormat format = new DecimalFormat("0.##########", DecimalFormatSymbols.getInstance(locale));
+        format.setParseBigDecimal(true);
+        format.setGroupingUsed(false);
+        return format;
+    }
+}
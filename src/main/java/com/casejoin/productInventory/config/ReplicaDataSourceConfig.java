@@ -0,0 +1,133 @@
+package com.casejoin.productInventory.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.casejoin.productInventory.datasource.ReadYourWrites;
+import com.casejoin.productInventory.datasource.ReplicaMonitor;
+import com.casejoin.productInventory.datasource.ReplicaRoutingDataSource;
+import com.casejoin.productInventory.filter.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty("product.datasource.replica.urls")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * The primary, configured by {@code spring.datasource.*}.
+     *
+     * @param properties the {@code spring.datasource} properties
+     * @return the primary pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    /**
+     * Opens a read-only pool per replica, with the credentials of the primary,
+     * and monitors their lag.
+     *
+     * @param primary       the primary pool
+     * @param properties    the {@code spring.datasource} properties
+     * @param urls          the JDBC URLs of the replicas
+     * @param maxPoolSize   the maximum pool size of each replica
+     * @param maxLag        the lag over which a replica is skipped
+     * @param checkInterval the interval between health checks
+     * @param migrate       whether to run the migrations on the replicas, for
+     *                      local replicas that do not replicate the schema
+     * @param locations     the migration locations
+     * @param meterRegistry where the pool, health and lag metrics are registered
+     * @return the replica monitor
+     */
+    @Bean
+    public ReplicaMonitor replicaMonitor(@Qualifier("primaryDataSource") DataSource primary,
+            DataSourceProperties properties,
+            @Value("${product.datasource.replica.urls}") List<String> urls,
+            @Value("${product.datasource.replica.maximum-pool-size:10}") int maxPoolSize,
+            @Value("${product.datasource.replica.max-lag:10s}") Duration maxLag,
+            @Value("${product.datasource.replica.check-interval:1s}") Duration checkInterval,
+            @Value("${product.datasource.replica.migrate:false}") boolean migrate,
+            @Value("${spring.flyway.locations:classpath:db/migration}") String[] locations,
+            MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String url = urls.get(i).strip();
+            if (migrate) {
+                Flyway.configure().dataSource(url, properties.determineUsername(), properties.determinePassword())
+                        .locations(locations).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+            }
+
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(url).build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(maxPoolSize);
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        return new ReplicaMonitor(primary, replicas, maxLag, checkInterval, Clock.systemUTC(), meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(
+            @Value("${product.datasource.replica.read-your-writes:5s}") Duration window) {
+        return new ReadYourWrites(window, Clock.systemUTC());
+    }
+
+    /**
+     * The data source of the application: read-only transactions go to the
+     * replicas, everything else to the primary.
+     *
+     * @param primary        the primary pool
+     * @param replicaMonitor the replicas and their health
+     * @param readYourWrites the recent writes
+     * @param meterRegistry  where the routing counters are registered
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaMonitor replicaMonitor,
+            ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replicaMonitor, readYourWrites, meterRegistry));
+    }
+
+    /**
+     * Registers the read-your-writes session on the API endpoints.
+     *
+     * @param readYourWrites the recent writes
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWrites readYourWrites) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(readYourWrites));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,46 @@
+package com.casejoin.productInventory.config;
+
+import java.math.BigDecimal;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Parses decimal request parameters once, at binding, in the notation of the
+     * request locale.
+     *
+     * @param registry the formatter registry
+     */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addFormatterForFieldType(BigDecimal.class, new PriceFormatter());
+    }
+
+    /**
+     * Adds {@code Vary: Accept} to the API responses, which are negotiated
+     * between JSON and CBOR, before the handler runs so that 304 responses
+     * carry it too. Exports pick their format from a parameter instead.
+     *
+     * @param registry the interceptor registry
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**").excludePathPatterns("/api/*/product/export");
+    }
+}
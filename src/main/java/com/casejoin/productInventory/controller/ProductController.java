@@ -1,13 +1,28 @@
 package com.casejoin.productInventory.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -15,14 +30,37 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.casejoin.productInventory.dto.ApiResponseDto;
+import com.casejoin.productInventory.dto.BulkImportResultDto;
+import com.casejoin.productInventory.dto.ProductBatchDto;
+import com.casejoin.productInventory.dto.ProductChangesDto;
 import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFacetsDto;
 import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.dto.ProductReportDto;
+import com.casejoin.productInventory.dto.ProductWindowDto;
+import com.casejoin.productInventory.dto.StockAdjustmentDto;
 import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.enums.ExportFormat;
+import com.casejoin.productInventory.enums.ReportGroup;
+import com.casejoin.productInventory.exception.ChangesExpiredException;
 import com.casejoin.productInventory.exception.CustomNotFoundException;
+import com.casejoin.productInventory.exception.InsufficientStockException;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
 import com.casejoin.productInventory.exception.RequiredArgumentsMissing;
+import com.casejoin.productInventory.exception.WriteQueueFullException;
+import com.casejoin.productInventory.model.Money;
+import com.casejoin.productInventory.outbox.ProductOutbox;
+import com.casejoin.productInventory.service.ProductExportService;
+import com.casejoin.productInventory.service.ProductImportService;
+import com.casejoin.productInventory.service.ProductReportService;
 import com.casejoin.productInventory.service.ProductService;
+import com.casejoin.productInventory.service.ProductWriteBehindQueue;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -37,9 +75,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 public class ProductController {
 
         private final ProductService productService;
+        private final ProductImportService productImportService;
+        private final ProductExportService productExportService;
+        private final ObjectMapper objectMapper;
+        private final ProductWriteBehindQueue writeBehindQueue;
+        private final ProductOutbox productOutbox;
+        private final ProductReportService productReportService;
 
-        public ProductController(ProductService productService) {
+        public ProductController(ProductService productService, ProductImportService productImportService,
+                        ProductExportService productExportService, ObjectMapper objectMapper,
+                        ObjectProvider<ProductWriteBehindQueue> writeBehindQueue, ProductOutbox productOutbox,
+                        ProductReportService productReportService) {
                 this.productService = productService;
+                this.productImportService = productImportService;
+                this.productExportService = productExportService;
+                this.objectMapper = objectMapper;
+                this.writeBehindQueue = writeBehindQueue.getIfAvailable();
+                this.productOutbox = productOutbox;
+                this.productReportService = productReportService;
         }
 
         /**
@@ -51,50 +104,269 @@ public class ProductController {
          * @param byMinPrice the minimum product price
          * @param byMaxPrice the maximum product price
          * @param page       the page number (1-indexed)
-         * @param pageSize   the page size
+         * @param pageSize   the page size, at most {@value ProductService#MAX_PAGE_SIZE}
+         * @param after      the cursor of the next window, switches to cursor
+         *                   pagination when present (empty for the first window)
+         * @param request    the request, for its conditional headers
          * @return a ResponseEntity containing the list of products, or an empty list if
-         *         no products are found
+         *         no products are found, or null (304 Not Modified) if the client's
+         *         copy, identified by its ETag, is still current
          * @throws CustomNotFoundException
+         * @throws InvalidArgumentException if the cursor is not valid or the page
+         *                                  size exceeds
+         *                                  {@value ProductService#MAX_PAGE_SIZE}
          */
         @Operation(summary = "Get all products or filtered")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Products found", content = {
                                         @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class)) }),
+                        @ApiResponse(responseCode = "304", description = "Products not modified", content = @Content),
                         @ApiResponse(responseCode = "400", description = "Invalid parameters supplied", content = @Content),
                         @ApiResponse(responseCode = "404", description = "Products not found", content = @Content) })
         @GetMapping
         public ResponseEntity<ApiResponseDto<List<ProductDto>>> getProducts(
                         @Parameter(description = "filter by product name", required = false) @RequestParam(defaultValue = "") String name,
                         @Parameter(description = "filter by product category", required = false) @RequestParam(defaultValue = "") Category category,
-                        @Parameter(description = "filter by product brand", required = false) @RequestParam(defaultValue = "") String brand,
-                        @Parameter(description = "filter by product min price", required = false) @RequestParam(required = false, defaultValue = "1.00") String minPrice,
-                        @Parameter(description = "filter by product max price", required = false) @RequestParam(required = false, defaultValue = "1000.00") String maxPrice,
+                        @Parameter(description = "filter by product brand prefix", required = false) @RequestParam(defaultValue = "") String brand,
+                        @Parameter(description = "filter by product min price", required = false) @RequestParam(required = false) BigDecimal minPrice,
+                        @Parameter(description = "filter by product max price", required = false) @RequestParam(required = false) BigDecimal maxPrice,
                         @Parameter(description = "add pagination", required = false) @RequestParam(required = false, defaultValue = "1") int page,
-                        @Parameter(description = "add pagination", required = false) @RequestParam(required = false, defaultValue = "10") int pageSize)
-                        throws CustomNotFoundException {
+                        @Parameter(description = "add pagination", required = false) @RequestParam(required = false, defaultValue = "10") int pageSize,
+                        @Parameter(description = "cursor pagination, the nextCursor of the previous response (empty for the first window)", required = false) @RequestParam(required = false) String after,
+                        WebRequest request)
+                        throws CustomNotFoundException, InvalidArgumentException {
 
+                checkPageSize(pageSize);
                 ProductFilterDto productFilterDto = new ProductFilterDto(
                                 name,
                                 category,
                                 brand,
-                                Double.parseDouble(minPrice.replace(",", ".")),
-                                Double.parseDouble(maxPrice.replace(",", ".")),
+                                minorUnits(minPrice, RoundingMode.CEILING),
+                                minorUnits(maxPrice, RoundingMode.FLOOR),
                                 page,
                                 pageSize);
 
+                if (request.checkNotModified(listETag(productFilterDto, after,
+                                productService.getProductsTag(productFilterDto), representation(request)))) {
+                        return null;
+                }
+
+                if (after != null) {
+                        ProductWindowDto window = productService.getProductsAfter(productFilterDto, after);
+                        return new ResponseEntity<>(
+                                        new ApiResponseDto<List<ProductDto>>(200, null, window.products(),
+                                                        window.nextCursor()),
+                                        HttpStatus.OK);
+                }
+
                 return new ResponseEntity<>(
                                 new ApiResponseDto<List<ProductDto>>(200, null,
                                                 productService.getProducts(productFilterDto)),
                                 HttpStatus.OK);
         }
 
+        /**
+         * Searches products by name, brand and description, ranked by relevance.
+         *
+         * @param text       the search text
+         * @param byCategory the product category
+         * @param byMinPrice the minimum product price
+         * @param byMaxPrice the maximum product price
+         * @param page       the page number (1-indexed)
+         * @param pageSize   the page size, at most {@value ProductService#MAX_PAGE_SIZE}
+         * @return a ResponseEntity containing the matching products, best match first
+         * @throws RequiredArgumentsMissing if the search text is missing
+         * @throws CustomNotFoundException  if no products are found
+         * @throws InvalidArgumentException if the page size exceeds
+         *                                  {@value ProductService#MAX_PAGE_SIZE}
+         */
+        @Operation(summary = "Search products by name, brand and description")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Products found", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class)) }),
+                        @ApiResponse(responseCode = "400", description = "Invalid parameters supplied", content = @Content),
+                        @ApiResponse(responseCode = "404", description = "Products not found", content = @Content) })
+        @GetMapping("search")
+        public ResponseEntity<ApiResponseDto<List<ProductDto>>> searchProducts(
+                        @Parameter(description = "search text", required = true) @RequestParam(name = "q") String text,
+                        @Parameter(description = "filter by product category", required = false) @RequestParam(defaultValue = "") Category category,
+                        @Parameter(description = "filter by product min price", required = false) @RequestParam(required = false) BigDecimal minPrice,
+                        @Parameter(description = "filter by product max price", required = false) @RequestParam(required = false) BigDecimal maxPrice,
+                        @Parameter(description = "add pagination", required = false) @RequestParam(required = false, defaultValue = "1") int page,
+                        @Parameter(description = "add pagination", required = false) @RequestParam(required = false, defaultValue = "10") int pageSize)
+                        throws RequiredArgumentsMissing, CustomNotFoundException, InvalidArgumentException {
+
+                checkPageSize(pageSize);
+                ProductFilterDto productFilterDto = new ProductFilterDto(
+                                null,
+                                category,
+                                null,
+                                minorUnits(minPrice, RoundingMode.CEILING),
+                                minorUnits(maxPrice, RoundingMode.FLOOR),
+                                page,
+                                pageSize);
+
+                return new ResponseEntity<>(
+                                new ApiResponseDto<List<ProductDto>>(200, null,
+                                                productService.searchProducts(text, productFilterDto)),
+                                HttpStatus.OK);
+        }
+
+        /**
+         * Computes the facets of the products matching the provided filter
+         * criteria: their number by category and by brand, and a price histogram.
+         *
+         * @param byName     the product name
+         * @param byCategory the product category
+         * @param byBrand    the product brand
+         * @param byMinPrice the minimum product price
+         * @param byMaxPrice the maximum product price
+         * @return a ResponseEntity containing the facets
+         */
+        @Operation(summary = "Get product facets", description = "Counts the matching products by category and brand, and by price range")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Facets computed", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = ProductFacetsDto.class)) }) })
+        @GetMapping("facets")
+        public ResponseEntity<ApiResponseDto<ProductFacetsDto>> getFacets(
+                        @Parameter(description = "filter by product name", required = false) @RequestParam(required = false) String name,
+                        @Parameter(description = "filter by product category", required = false) @RequestParam(required = false) Category category,
+                        @Parameter(description = "filter by product brand prefix", required = false) @RequestParam(required = false) String brand,
+                        @Parameter(description = "filter by product min price", required = false) @RequestParam(required = false) BigDecimal minPrice,
+                        @Parameter(description = "filter by product max price", required = false) @RequestParam(required = false) BigDecimal maxPrice) {
+
+                ProductFilterDto productFilterDto = new ProductFilterDto(
+                                name,
+                                category,
+                                brand,
+                                minorUnits(minPrice, RoundingMode.CEILING),
+                                minorUnits(maxPrice, RoundingMode.FLOOR),
+                                null,
+                                null);
+
+                return new ResponseEntity<>(
+                                new ApiResponseDto<ProductFacetsDto>(200, null, productService.getFacets(productFilterDto)),
+                                HttpStatus.OK);
+        }
+
+        /**
+         * Computes the statistics of the products matching the provided filter
+         * criteria, in total and by category or brand, scanning ranges of the
+         * catalog in parallel.
+         *
+         * @param groupBy    what to group the products by
+         * @param lowStock   the highest stock counted as low
+         * @param byName     the product name
+         * @param byCategory the product category
+         * @param byBrand    the product brand
+         * @param byMinPrice the minimum product price
+         * @param byMaxPrice the maximum product price
+         * @return a ResponseEntity containing the report
+         */
+        @Operation(summary = "Get a product report", description = "Computes count, stock, low-stock count, stock value and price percentiles of the matching products, by category or brand")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Report computed", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = ProductReportDto.class)) }) })
+        @GetMapping("report")
+        public ResponseEntity<ApiResponseDto<ProductReportDto>> getReport(
+                        @Parameter(description = "group products by", required = false) @RequestParam(required = false, defaultValue = "CATEGORY") ReportGroup groupBy,
+                        @Parameter(description = "highest stock counted as low", required = false) @RequestParam(required = false, defaultValue = "5") int lowStock,
+                        @Parameter(description = "filter by product name", required = false) @RequestParam(required = false) String name,
+                        @Parameter(description = "filter by product category", required = false) @RequestParam(required = false) Category category,
+                        @Parameter(description = "filter by product brand prefix", required = false) @RequestParam(required = false) String brand,
+                        @Parameter(description = "filter by product min price", required = false) @RequestParam(required = false) BigDecimal minPrice,
+                        @Parameter(description = "filter by product max price", required = false) @RequestParam(required = false) BigDecimal maxPrice) {
+
+                ProductFilterDto productFilterDto = new ProductFilterDto(
+                                name,
+                                category,
+                                brand,
+                                minorUnits(minPrice, RoundingMode.CEILING),
+                                minorUnits(maxPrice, RoundingMode.FLOOR),
+                                null,
+                                null);
+
+                return new ResponseEntity<>(
+                                new ApiResponseDto<ProductReportDto>(200, null,
+                                                productReportService.getReport(productFilterDto, groupBy, lowStock)),
+                                HttpStatus.OK);
+        }
+
+        /**
+         * Exports every product matching the provided filter criteria, streamed as
+         * NDJSON or CSV.
+         * <p>
+         * The response is written while the products are read from the database,
+         * so exports of any size run in constant memory. It is gzip-compressed
+         * when the client accepts it.
+         *
+         * @param format     the export format
+         * @param byName     the product name
+         * @param byCategory the product category
+         * @param byBrand    the product brand
+         * @param byMinPrice the minimum product price
+         * @param byMaxPrice the maximum product price
+         * @param request    the request, for its accepted encodings
+         * @return a ResponseEntity streaming the exported products
+         */
+        @Operation(summary = "Export products", description = "Streams every product matching the filter as NDJSON or CSV")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Products exported", content = {
+                                        @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = ProductDto.class)),
+                                        @Content(mediaType = "text/csv") }) })
+        @GetMapping("export")
+        public ResponseEntity<StreamingResponseBody> exportProducts(
+                        @Parameter(description = "export format", required = false) @RequestParam(required = false, defaultValue = "NDJSON") ExportFormat format,
+                        @Parameter(description = "filter by product name", required = false) @RequestParam(required = false) String name,
+                        @Parameter(description = "filter by product category", required = false) @RequestParam(required = false) Category category,
+                        @Parameter(description = "filter by product brand prefix", required = false) @RequestParam(required = false) String brand,
+                        @Parameter(description = "filter by product min price", required = false) @RequestParam(required = false) BigDecimal minPrice,
+                        @Parameter(description = "filter by product max price", required = false) @RequestParam(required = false) BigDecimal maxPrice,
+                        WebRequest request) {
+
+                ProductFilterDto productFilterDto = new ProductFilterDto(
+                                name,
+                                category,
+                                brand,
+                                minorUnits(minPrice, RoundingMode.CEILING),
+                                minorUnits(maxPrice, RoundingMode.FLOOR),
+                                null,
+                                null);
+
+                String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+                boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.parseMediaType(format.getContentType()));
+                headers.setContentDisposition(ContentDisposition.attachment()
+                                .filename("products." + format.getExtension()).build());
+                headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+                if (gzip) {
+                        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+
+                StreamingResponseBody body = out -> {
+                        if (gzip) {
+                                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192)) {
+                                        productExportService.exportProducts(productFilterDto, format, gzipOut);
+                                }
+                        } else {
+                                productExportService.exportProducts(productFilterDto, format, out);
+                        }
+                };
+                return new ResponseEntity<>(body, headers, HttpStatus.OK);
+        }
+
         /**
          * Retrieves a product based on the provided product ID.
          *
-         * @param id the product ID to retrieve
+         * @param id      the product ID to retrieve
+         * @param request the request, for its conditional headers
          * @return a ResponseEntity containing the product, or an empty response if the
          *         product
-         *         is not found
+         *         is not found, or null (304 Not Modified) if the client's copy,
+         *         identified by its version ETag or Last-Modified date, is still
+         *         current
          * @throws RequiredArgumentsMissing if the product ID is not provided
          * @throws CustomNotFoundException  if the product is not found
          */
@@ -102,16 +374,86 @@ public class ProductController {
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Product retrieved successfully", content = {
                                         @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class)) }),
+                        @ApiResponse(responseCode = "304", description = "Product not modified", content = @Content),
                         @ApiResponse(responseCode = "400", description = "Invalid parameters supplied", content = @Content),
                         @ApiResponse(responseCode = "404", description = "Product not found", content = @Content) })
         @GetMapping("{id}")
         public ResponseEntity<ApiResponseDto<ProductDto>> getProductById(
-                        @Parameter(description = "product id", required = true) @PathVariable(required = true) UUID id)
+                        @Parameter(description = "product id", required = true) @PathVariable(required = true) UUID id,
+                        WebRequest request)
                         throws RequiredArgumentsMissing, CustomNotFoundException {
 
+                ProductDto product = productService.getProduct(id);
+                LocalDateTime lastModified = product.lastModified();
+                if (request.checkNotModified(
+                                "\"" + product.version() + "-" + representation(request).getSubtype() + "\"",
+                                lastModified == null ? -1
+                                : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())) {
+                        return null;
+                }
+
+                return new ResponseEntity<>(
+                                new ApiResponseDto<ProductDto>(200, "Product retrieved successfully", product),
+                                HttpStatus.OK);
+        }
+
+        /**
+         * Retrieves several products by their IDs in a single call.
+         *
+         * @param ids the product IDs, at most {@value ProductService#MAX_BATCH_IDS}
+         * @return a ResponseEntity containing the products found, by ID in request
+         *         order, and the IDs of the missing products
+         * @throws RequiredArgumentsMissing if no ID is provided
+         * @throws InvalidArgumentException if too many IDs are provided
+         */
+        @Operation(summary = "Get products by ids", description = "Resolves up to 1000 product ids with a single query, missing products are listed apart")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Products retrieved successfully", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = ProductBatchDto.class)) }),
+                        @ApiResponse(responseCode = "400", description = "Invalid parameters supplied", content = @Content) })
+        @GetMapping("batch")
+        public ResponseEntity<ApiResponseDto<ProductBatchDto>> getProductsByIds(
+                        @Parameter(description = "product ids, comma separated", required = true) @RequestParam(required = true) List<UUID> ids)
+                        throws RequiredArgumentsMissing, InvalidArgumentException {
+
+                ProductBatchDto products = productService.getProductsByIds(ids);
+                return new ResponseEntity<>(
+                                new ApiResponseDto<ProductBatchDto>(200,
+                                                products.found().size() + " of " + (products.found().size()
+                                                                + products.missing().size()) + " products found",
+                                                products),
+                                HttpStatus.OK);
+        }
+
+        /**
+         * Retrieves the product changes that follow a sequence, so that other
+         * systems can follow the catalog without reading it again.
+         *
+         * @param since the last sequence already seen, 0 to start from the oldest
+         *              retained change
+         * @param limit the maximum number of changes, at most
+         *              {@value ProductOutbox#MAX_BATCH_SIZE}
+         * @return a ResponseEntity containing the changes, by increasing sequence,
+         *         and the sequence to ask for the next ones from
+         * @throws ChangesExpiredException if changes following the sequence are no
+         *                                 longer retained; the current sequence
+         *                                 is sent in the
+         *                                 {@value ChangesExpiredException#LAST_SEQUENCE_HEADER}
+         *                                 header
+         */
+        @Operation(summary = "Get product changes", description = "Incremental feed of the product changes: pass the lastSequence of the previous response as since")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Changes retrieved successfully", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = ProductChangesDto.class)) }),
+                        @ApiResponse(responseCode = "410", description = "Changes since the sequence are no longer retained, read the products again and resume from the X-Last-Sequence header", content = @Content) })
+        @GetMapping("changes")
+        public ResponseEntity<ApiResponseDto<ProductChangesDto>> getChanges(
+                        @Parameter(description = "last sequence already seen", required = false) @RequestParam(required = false, defaultValue = "0") long since,
+                        @Parameter(description = "maximum number of changes", required = false) @RequestParam(required = false, defaultValue = "100") int limit)
+                        throws ChangesExpiredException {
+
                 return new ResponseEntity<>(
-                                new ApiResponseDto<ProductDto>(200, "Product retrieved successfully",
-                                                productService.getProduct(id)),
+                                new ApiResponseDto<ProductChangesDto>(200, null, productOutbox.changesSince(since, limit)),
                                 HttpStatus.OK);
         }
 
@@ -123,6 +465,7 @@ public class ProductController {
          * @throws RequiredArgumentsMissing if the product DTO is not provided
          * @throws CustomNotFoundException  if the creation fails due to any other
          *                                  reason
+         * @throws InvalidArgumentException if the price or currency is not valid
          */
         @Operation(summary = "Create a new product")
         @ApiResponses(value = {
@@ -132,7 +475,7 @@ public class ProductController {
         @PostMapping
         public ResponseEntity<ApiResponseDto<String>> createProduct(
                         @Parameter(description = "product body", required = true) @RequestBody ProductDto productDto)
-                        throws RequiredArgumentsMissing, CustomNotFoundException {
+                        throws RequiredArgumentsMissing, CustomNotFoundException, InvalidArgumentException {
 
                 productService.createProduct(productDto);
                 return new ResponseEntity<>(
@@ -140,6 +483,90 @@ public class ProductController {
                                 HttpStatus.OK);
         }
 
+        /**
+         * Imports products in bulk from a streamed NDJSON or JSON array body.
+         * <p>
+         * The body is read one product at a time, so feeds of any size can be
+         * imported without being buffered in memory.
+         *
+         * @param body the request body, either one product per line (NDJSON) or a
+         *             JSON array of products
+         * @return a ResponseEntity containing the import counts and the per-row
+         *         error report
+         * @throws IOException if the request body cannot be read
+         */
+        @Operation(summary = "Import products in bulk", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {
+                        @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = ProductDto.class)),
+                        @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class)) }))
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Products imported", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = BulkImportResultDto.class)) }) })
+        @PostMapping(value = "bulk", consumes = { "application/x-ndjson", MediaType.APPLICATION_JSON_VALUE })
+        public ResponseEntity<ApiResponseDto<BulkImportResultDto>> importProducts(
+                        @Parameter(hidden = true) InputStream body) throws IOException {
+
+                try (MappingIterator<ProductDto> products = objectMapper.readerFor(ProductDto.class).readValues(body)) {
+                        return new ResponseEntity<>(
+                                        new ApiResponseDto<BulkImportResultDto>(200, "Products imported",
+                                                        productImportService.importProducts(products)),
+                                        HttpStatus.OK);
+                }
+        }
+
+        /**
+         * Adds a delta to the stock of a product.
+         *
+         * @param id    the product ID
+         * @param delta the quantity to add, negative to remove stock
+         * @return a ResponseEntity containing the status of the adjustment
+         * @throws RequiredArgumentsMissing   if the product ID is not provided
+         * @throws CustomNotFoundException    if the product is not found
+         * @throws InsufficientStockException if the product does not have enough
+         *                                    stock
+         */
+        @Operation(summary = "Adjust the stock of a product", description = "Atomically adds the delta to the quantity, rejecting adjustments that would make it negative")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Stock adjusted successfully", content = @Content),
+                        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+                        @ApiResponse(responseCode = "409", description = "Insufficient stock", content = @Content) })
+        @PostMapping("{id}/stock")
+        public ResponseEntity<ApiResponseDto<String>> adjustStock(
+                        @Parameter(description = "product id", required = true) @PathVariable(required = true) UUID id,
+                        @Parameter(description = "quantity to add, negative to remove stock", required = true) @RequestParam(required = true) int delta)
+                        throws RequiredArgumentsMissing, CustomNotFoundException, InsufficientStockException {
+
+                productService.adjustStock(id, delta);
+                return new ResponseEntity<>(
+                                new ApiResponseDto<String>(200, "Stock adjusted successfully", null),
+                                HttpStatus.OK);
+        }
+
+        /**
+         * Adds deltas to the stock of several products, all or nothing.
+         *
+         * @param adjustments the stock deltas
+         * @return a ResponseEntity containing the status of the adjustments
+         * @throws RequiredArgumentsMissing   if the adjustments are not provided
+         * @throws CustomNotFoundException    if some product is not found
+         * @throws InsufficientStockException if some product does not have enough
+         *                                    stock
+         */
+        @Operation(summary = "Adjust the stock of several products", description = "Applies every delta in one transaction, or none if some product is missing or does not have enough stock")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Stock adjusted successfully", content = @Content),
+                        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+                        @ApiResponse(responseCode = "409", description = "Insufficient stock", content = @Content) })
+        @PostMapping("stock")
+        public ResponseEntity<ApiResponseDto<String>> adjustStock(
+                        @Parameter(description = "stock deltas", required = true) @RequestBody(required = true) List<StockAdjustmentDto> adjustments)
+                        throws RequiredArgumentsMissing, CustomNotFoundException, InsufficientStockException {
+
+                productService.adjustStock(adjustments);
+                return new ResponseEntity<>(
+                                new ApiResponseDto<String>(200, "Stock adjusted successfully", null),
+                                HttpStatus.OK);
+        }
+
         /**
          * Deletes an existing product based on the provided product ID.
          *
@@ -167,27 +594,159 @@ public class ProductController {
 
         
         /**
-         * Updates an existing product based on the provided product DTO.
+         * Updates an existing product based on the provided product DTO. A
+         * {@code version} in the body makes the update conditional: it fails with
+         * 409 if the product was modified since that version was read.
          *
          * @param productDto the product details to be updated
          * @return a ResponseEntity containing the status of the update operation
          * @throws RequiredArgumentsMissing if the product DTO is not provided
          * @throws CustomNotFoundException  if the product is not found
+         * @throws InvalidArgumentException if the price or currency is not valid
          */
         @Operation(summary = "Update product by product")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Product updated successfully", content = {
                                         @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class)) }),
                         @ApiResponse(responseCode = "400", description = "Invalid parameters supplied", content = @Content),
-                        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content) })
+                        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+                        @ApiResponse(responseCode = "409", description = "Product modified since the given version", content = @Content) })
         @PutMapping
         public ResponseEntity<ApiResponseDto<String>> updateProductById(
                         @Parameter(description = "product body", required = true) @RequestBody(required = true) ProductDto ProductDto)
-                        throws RequiredArgumentsMissing, CustomNotFoundException {
+                        throws RequiredArgumentsMissing, CustomNotFoundException, InvalidArgumentException {
 
                 productService.updateProduct(ProductDto);
                 return new ResponseEntity<>(
                                 new ApiResponseDto<String>(200, "Product updated successfully", null),
                                 HttpStatus.OK);
         }
+
+        /**
+         * Partially updates an existing product: only the fields present in the
+         * body are changed.
+         * <p>
+         * In write-behind mode ({@code product.write-behind.enabled}), the update
+         * is queued, coalesced with the other pending updates of the product and
+         * acknowledged with 202; it is written by a later batch. Since it is
+         * not checked against a version, an update carrying one is rejected with
+         * 400 in this mode.
+         *
+         * @param id         the product ID
+         * @param productDto the fields to change
+         * @return a ResponseEntity containing the status of the update operation
+         * @throws RequiredArgumentsMissing if no field to change is provided
+         * @throws CustomNotFoundException  if the product is not found
+         * @throws InvalidArgumentException if the price or currency is not valid,
+         *                                  or a version is sent in write-behind
+         *                                  mode
+         * @throws WriteQueueFullException  if the write-behind queue is full
+         */
+        @Operation(summary = "Partially update product by id")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Product updated successfully", content = @Content),
+                        @ApiResponse(responseCode = "202", description = "Product update queued (write-behind mode)", content = @Content),
+                        @ApiResponse(responseCode = "400", description = "Invalid parameters supplied", content = @Content),
+                        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+                        @ApiResponse(responseCode = "409", description = "Product modified since the given version", content = @Content),
+                        @ApiResponse(responseCode = "503", description = "Too many pending updates, retry later", content = @Content) })
+        @PatchMapping("{id}")
+        public ResponseEntity<ApiResponseDto<String>> patchProductById(
+                        @Parameter(description = "product id", required = true) @PathVariable(required = true) UUID id,
+                        @Parameter(description = "product fields to change", required = true) @RequestBody(required = true) ProductDto productDto)
+                        throws RequiredArgumentsMissing, CustomNotFoundException, InvalidArgumentException, WriteQueueFullException {
+
+                if (writeBehindQueue != null) {
+                        writeBehindQueue.enqueue(id, productDto);
+                        return new ResponseEntity<>(
+                                        new ApiResponseDto<String>(202, "Product update accepted", null),
+                                        HttpStatus.ACCEPTED);
+                }
+
+                productService.patchProduct(id, productDto);
+                return new ResponseEntity<>(
+                                new ApiResponseDto<String>(200, "Product updated successfully", null),
+                                HttpStatus.OK);
+        }
+
+        /**
+         * Builds the weak ETag of a list response, hashing the request filter,
+         * cursor, the tag of the matching product list and the media type of
+         * the response.
+         * <p>
+         * List responses have no Last-Modified date, since deleting a product does
+         * not advance the latest modification date of the list. The ETag is weak
+         * because the same list may be sent compressed or not, and Tomcat does not
+         * compress responses with a strong ETag.
+         *
+         * @param filter    the product filter
+         * @param after     the cursor, or null in page mode
+         * @param tag       the tag of the product list matching the filter
+         * @param mediaType the media type of the response
+         * @return the ETag
+         */
+        private static String listETag(ProductFilterDto filter, String after, String tag, MediaType mediaType) {
+                String key = filter + "|" + after + "|" + tag + "|" + mediaType.getSubtype();
+                return "W/\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+        }
+
+        /**
+         * Tells which representation, JSON or CBOR, content negotiation picks for
+         * the request, so that the ETag of each representation differs: the
+         * accepted type of highest quality that either of them matches, JSON
+         * unless CBOR is asked for explicitly.
+         *
+         * @param request the request, for its Accept header
+         * @return {@link MediaType#APPLICATION_JSON} or
+         *         {@link MediaType#APPLICATION_CBOR}
+         */
+        private static MediaType representation(WebRequest request) {
+                String accept = request.getHeader(HttpHeaders.ACCEPT);
+                if (accept == null || !accept.contains("cbor")) {
+                        return MediaType.APPLICATION_JSON;
+                }
+
+                MediaType best = null;
+                try {
+                        for (MediaType accepted : MediaType.parseMediaTypes(accept)) {
+                                if ((accepted.isCompatibleWith(MediaType.APPLICATION_JSON)
+                                                || accepted.isCompatibleWith(MediaType.APPLICATION_CBOR))
+                                                && (best == null || accepted.getQualityValue() > best.getQualityValue())) {
+                                        best = accepted;
+                                }
+                        }
+                } catch (InvalidMediaTypeException e) {
+                        return MediaType.APPLICATION_JSON;
+                }
+                return best != null && MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(best)
+                                ? MediaType.APPLICATION_CBOR
+                                : MediaType.APPLICATION_JSON;
+        }
+
+        /**
+         * Rejects page sizes above {@value ProductService#MAX_PAGE_SIZE}, so that a
+         * single request cannot read an unbounded number of rows.
+         *
+         * @param pageSize the requested page size
+         * @throws InvalidArgumentException if the page size is too large
+         */
+        private static void checkPageSize(int pageSize) throws InvalidArgumentException {
+                if (pageSize > ProductService.MAX_PAGE_SIZE) {
+                        throw new InvalidArgumentException(
+                                        "The page size cannot exceed " + ProductService.MAX_PAGE_SIZE);
+                }
+        }
+
+        /**
+         * Converts a price filter, already parsed by the web binder for the request
+         * locale (see {@code PriceFormatter}), to minor units of the default
+         * currency. Extra decimals are rounded towards the inside of the range.
+         *
+         * @param price    the price, or null
+         * @param rounding CEILING for a lower bound, FLOOR for an upper bound
+         * @return the price in minor units, or null if there is no price
+         */
+        private static Long minorUnits(BigDecimal price, RoundingMode rounding) {
+                return price != null ? Money.toMinor(price, Money.DEFAULT_CURRENCY, rounding) : null;
+        }
 }
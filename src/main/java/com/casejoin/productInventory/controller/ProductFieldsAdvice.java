@@ -0,0 +1,36 @@
+package com.casejoin.productInventory.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import com.casejoin.productInventory.dto.ProductFields;
+
+/**
+ * Applies the {@code fields} request parameter to the products of the
+ * {@link ProductController} responses, in JSON and CBOR alike.
+ */
+@ControllerAdvice(assignableTypes = ProductController.class)
+public class ProductFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    /**
+     * Name of the sparse fieldset request parameter.
+     */
+    public static final String FIELDS = "fields";
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+            MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            String fields = servletRequest.getServletRequest().getParameter(FIELDS);
+            if (fields != null) {
+                bodyContainer.setFilters(ProductFields.of(fields));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.casejoin.productInventory.datasource;
+
+/**
+ * Sends the reads of the current thread to the primary while a task runs.
+ * <p>
+ * Used for the reads whose results are cached and shared with every client: a
+ * replica may lag behind the primary, and a stale row cached from it would
+ * outlive both the lag and the {@link ReadYourWrites} window of the client that
+ * wrote it. The {@link ReplicaRoutingDataSource} routes on the first statement
+ * of a transaction, so the transaction must not have read before the task.
+ * Without replicas, this has no effect.
+ */
+public final class PrimaryReads {
+
+    /**
+     * A read, which may throw a checked exception.
+     *
+     * @param <V> the value type
+     * @param <E> the exception type
+     */
+    @FunctionalInterface
+    public interface Read<V, E extends Exception> {
+        V read() throws E;
+    }
+
+    private static final ThreadLocal<Boolean> active = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    /**
+     * Runs a read on the primary.
+     *
+     * @param read the read
+     * @return the value read
+     * @throws E the exception of the read
+     */
+    public static <V, E extends Exception> V call(Read<V, E> read) throws E {
+        if (active.get() != null) {
+            return read.read();
+        }
+        active.set(Boolean.TRUE);
+        try {
+            return read.read();
+        } finally {
+            active.remove();
+        }
+    }
+
+    /**
+     * Tells whether the current thread runs a read that must go to the
+     * primary.
+     *
+     * @return true if reads must go to the primary
+     */
+    public static boolean isActive() {
+        return active.get() != null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.casejoin.productInventory.datasource;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.function.LongConsumer;
+
+/**
+ * Tracks the last write of the current thread, so reads shortly after it are
+ * sent to the primary instead of a replica that may not have the write yet.
+ * <p>
+ * A thread is pinned to the primary for the configured window after its last
+ * write. Across requests the write time travels with the client session (see
+ * {@link com.casejoin.productInventory.filter.ReadYourWritesFilter}), which
+ * sets it with {@link #begin(Long, LongConsumer)} and clears it with
+ * {@link #end()}.
+ */
+public class ReadYourWrites {
+
+    private final long windowMillis;
+    private final Clock clock;
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+    private final ThreadLocal<LongConsumer> writeListener = new ThreadLocal<>();
+
+    /**
+     * @param window how long reads go to the primary after a write, zero to
+     *               always read from the replicas
+     * @param clock  the clock of the write times
+     */
+    public ReadYourWrites(Duration window, Clock clock) {
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Records a write of the current thread.
+     */
+    public void recordWrite() {
+        if (windowMillis <= 0) {
+            return;
+        }
+        long now = clock.millis();
+        lastWrite.set(now);
+        LongConsumer listener = writeListener.get();
+        if (listener != null) {
+            listener.accept(now);
+        }
+    }
+
+    /**
+     * Tells whether the current thread wrote within the window.
+     *
+     * @return true if reads must go to the primary
+     */
+    public boolean isPinned() {
+        Long writtenAt = lastWrite.get();
+        return writtenAt != null && clock.millis() - writtenAt < windowMillis;
+    }
+
+    /**
+     * Starts a session on the current thread.
+     *
+     * @param writtenAt the time of the last write of the session, or null
+     *                  (a time in the future counts as now)
+     * @param onWrite   called with the write time on each write of the session
+     */
+    public void begin(Long writtenAt, LongConsumer onWrite) {
+        if (writtenAt == null) {
+            lastWrite.remove();
+        } else {
+            lastWrite.set(Math.min(writtenAt, clock.millis()));
+        }
+        writeListener.set(onWrite);
+    }
+
+    /**
+     * Ends the session of the current thread.
+     */
+    public void end() {
+        lastWrite.remove();
+        writeListener.remove();
+    }
+}
@@ -0,0 +1,217 @@
+package com.casejoin.productInventory.datasource;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Checks the health and replication lag of the primary and the replicas.
+ * <p>
+ * Each check writes the current time to the {@code replica_heartbeat} table
+ * of the primary and reads it back from every replica: the difference with
+ * the current time is the replication lag. Replicas that fail the check or lag
+ * more than the maximum lag are reported unhealthy, and reads skip them until
+ * they catch up.
+ * <p>
+ * Checks start once the application context is refreshed, after the
+ * migrations; until the first check, reads go to the primary. The monitor owns
+ * the replica pools and closes them.
+ */
+public class ReplicaMonitor implements HealthIndicator, SmartLifecycle, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaMonitor.class);
+
+    private static final int QUERY_TIMEOUT_SECONDS = 5;
+
+    private final Target primary;
+    private final Map<String, Target> replicas = new LinkedHashMap<>();
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean running;
+
+    /**
+     * @param primary       the primary
+     * @param replicas      the replicas, by target name
+     * @param maxLag        the lag over which a replica is skipped, zero to only
+     *                      skip replicas that fail the check
+     * @param checkInterval the interval between checks
+     * @param clock         the clock of the heartbeats
+     * @param meterRegistry where the health and lag gauges are registered
+     */
+    public ReplicaMonitor(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+            Duration checkInterval, Clock clock, MeterRegistry meterRegistry) {
+        this.primary = new Target(ReplicaRoutingDataSource.PRIMARY, primary, true);
+        replicas.forEach((name, dataSource) -> this.replicas.put(name, new Target(name, dataSource, false)));
+        this.maxLagMillis = maxLag.toMillis();
+        this.checkIntervalMillis = checkInterval.toMillis();
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-monitor").daemon().factory());
+
+        List<Target> targets = new ArrayList<>(this.replicas.values());
+        targets.add(0, this.primary);
+        for (Target target : targets) {
+            Gauge.builder("product.datasource.healthy", target, t -> t.healthy ? 1 : 0)
+                    .description("Whether the data source passed its last check")
+                    .tag("target", target.name)
+                    .register(meterRegistry);
+        }
+        for (Target replica : this.replicas.values()) {
+            Gauge.builder("product.datasource.lag", replica, t -> t.lagMillis < 0 ? Double.NaN : t.lagMillis / 1000.0)
+                    .description("Replication lag of the replica at its last check")
+                    .baseUnit("seconds")
+                    .tag("target", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Checks the targets once, then every check interval.
+     */
+    @Override
+    public void start() {
+        check();
+        scheduler.scheduleWithFixedDelay(this::check, checkIntervalMillis, checkIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        scheduler.shutdownNow();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Writes a heartbeat to the primary and measures the lag of each replica.
+     * Checks run one at a time, under a lock rather than a monitor, so that a
+     * virtual thread waiting on the database does not pin its carrier.
+     */
+    public void check() {
+        lock.lock();
+        try {
+            long now = clock.millis();
+            try {
+                primary.jdbcTemplate.update("UPDATE replica_heartbeat SET beat = ? WHERE id = 1", now);
+                report(primary, true, null);
+            } catch (DataAccessException e) {
+                report(primary, false, e);
+            }
+
+            for (Target replica : replicas.values()) {
+                try {
+                    Long beat = replica.jdbcTemplate.queryForObject("SELECT beat FROM replica_heartbeat WHERE id = 1",
+                            Long.class);
+                    replica.lagMillis = Math.max(clock.millis() - beat, 0);
+                    report(replica, maxLagMillis <= 0 || replica.lagMillis <= maxLagMillis, null);
+                } catch (DataAccessException e) {
+                    report(replica, false, e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tells whether a replica passed its last check.
+     *
+     * @param name the target name of the replica
+     * @return true if reads may be sent to the replica
+     */
+    public boolean isHealthy(String name) {
+        Target replica = replicas.get(name);
+        return replica != null && replica.healthy;
+    }
+
+    /**
+     * @return the replicas, by target name
+     */
+    public Map<String, DataSource> getReplicas() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        replicas.forEach((name, replica) -> dataSources.put(name, replica.dataSource));
+        return dataSources;
+    }
+
+    /**
+     * Reports the state of each target as of the last check. The application
+     * stays up while the primary is healthy, reads fall back to it.
+     */
+    @Override
+    public Health health() {
+        Health.Builder builder = primary.healthy ? Health.up() : Health.down();
+        builder.withDetail(primary.name, Map.of("healthy", primary.healthy));
+        for (Target replica : replicas.values()) {
+            builder.withDetail(replica.name, Map.of("healthy", replica.healthy, "lagMillis", replica.lagMillis));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void close() throws Exception {
+        scheduler.shutdownNow();
+        for (Target replica : replicas.values()) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void report(Target target, boolean healthy, Exception failure) {
+        if (target.healthy && !healthy) {
+            if (failure != null) {
+                log.warn("Data source {} failed its check, reads skip it: {}", target.name, failure.getMessage());
+            } else {
+                log.warn("Replica {} lags {} ms, reads skip it", target.name, target.lagMillis);
+            }
+        } else if (!target.healthy && healthy) {
+            log.info("Data source {} is healthy again", target.name);
+        }
+        target.healthy = healthy;
+    }
+
+    private static final class Target {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile boolean healthy;
+        private volatile long lagMillis = -1;
+
+        private Target(String name, DataSource dataSource, boolean healthy) {
+            this.name = name;
+            this.healthy = healthy;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.jdbcTemplate.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.casejoin.productInventory.datasource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends the connections of read-only transactions to the replicas, round
+ * robin, and every other connection to the primary.
+ * <p>
+ * Reads go to the primary instead when the current thread wrote recently (see
+ * {@link ReadYourWrites}), when their result is cached (see
+ * {@link PrimaryReads}) or when no replica is healthy (see
+ * {@link ReplicaMonitor}).
+ * <p>
+ * The transaction manager takes a connection before the transaction is marked
+ * read-only, so this data source must be wrapped in a
+ * {@link LazyConnectionDataSourceProxy}: the target is then chosen on the first
+ * statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Target name of the primary.
+     */
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicas;
+    private final ReplicaMonitor replicaMonitor;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routed = new HashMap<>();
+    private final Counter pinned;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaMonitor replicaMonitor, ReadYourWrites readYourWrites,
+            MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>(replicaMonitor.getReplicas());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        this.replicas = List.copyOf(replicaMonitor.getReplicas().keySet());
+        this.replicaMonitor = replicaMonitor;
+        this.readYourWrites = readYourWrites;
+        for (Object target : targets.keySet()) {
+            routed.put((String) target, Counter.builder("product.datasource.routed")
+                    .description("Connections handed out by the routing data source")
+                    .tag("target", (String) target)
+                    .register(meterRegistry));
+        }
+        this.pinned = Counter.builder("product.datasource.read-your-writes")
+                .description("Read-only connections sent to the primary after a recent write")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = route();
+        routed.get(target).increment();
+        return target;
+    }
+
+    private String route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.recordWrite();
+            }
+            return PRIMARY;
+        }
+
+        if (readYourWrites.isPinned()) {
+            pinned.increment();
+            return PRIMARY;
+        }
+
+        if (PrimaryReads.isActive()) {
+            return PRIMARY;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            String replica = replicas.get((start + i) % replicas.size());
+            if (replicaMonitor.isHealthy(replica)) {
+                return replica;
+            }
+        }
+        return PRIMARY;
+    }
+}
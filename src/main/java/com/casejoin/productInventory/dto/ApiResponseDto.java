@@ -1,7 +1,13 @@
 package com.casejoin.productInventory.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public record ApiResponseDto<T>(
         int statusCode,
         String message,
-        T data) {
+        T data,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String nextCursor) {
+    public ApiResponseDto(int statusCode, String message, T data) {
+        this(statusCode, message, data, null);
+    }
 }
@@ -0,0 +1,4 @@
+package com.casejoin.productInventory.dto;
+
+public record BulkImportErrorDto(long row, String message) {
+}
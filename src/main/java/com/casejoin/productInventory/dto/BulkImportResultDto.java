@@ -0,0 +1,10 @@
+package com.casejoin.productInventory.dto;
+
+import java.util.List;
+
+public record BulkImportResultDto(
+        long received,
+        long imported,
+        long failed,
+        List<BulkImportErrorDto> errors) {
+}
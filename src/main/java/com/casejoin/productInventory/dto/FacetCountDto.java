@@ -0,0 +1,19 @@
+package com.casejoin.productInventory.dto;
+
+import com.casejoin.productInventory.enums.Category;
+
+/**
+ * Number of products of a category, brand and price bucket.
+ *
+ * @param category the category
+ * @param brand    the brand, or null
+ * @param bucket   the index of the price bucket, or null if the products have
+ *                 no price
+ * @param count    the number of products
+ */
+public record FacetCountDto(
+        Category category,
+        String brand,
+        Integer bucket,
+        long count) {
+}
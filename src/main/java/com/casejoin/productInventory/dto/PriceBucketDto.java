@@ -0,0 +1,16 @@
+package com.casejoin.productInventory.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Number of products priced from {@code from} (inclusive) to {@code to}
+ * (exclusive, null for the last, unbounded, bucket), in the default currency.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PriceBucketDto(
+        BigDecimal from,
+        BigDecimal to,
+        long count) {
+}
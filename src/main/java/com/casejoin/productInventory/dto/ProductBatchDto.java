@@ -0,0 +1,10 @@
+package com.casejoin.productInventory.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public record ProductBatchDto(
+        Map<UUID, ProductDto> found,
+        List<UUID> missing) {
+}
@@ -0,0 +1,25 @@
+package com.casejoin.productInventory.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.casejoin.productInventory.enums.ChangeType;
+
+/**
+ * A published product change.
+ *
+ * @param sequence   the number of the change, increasing in publication order
+ * @param type       the kind of change
+ * @param productId  the id of the changed product
+ * @param product    the product state when the change was read, which may
+ *                   include later changes, or null if the product no longer
+ *                   exists
+ * @param occurredAt when the change was written
+ */
+public record ProductChangeDto(
+        long sequence,
+        ChangeType type,
+        UUID productId,
+        ProductDto product,
+        LocalDateTime occurredAt) {
+}
@@ -0,0 +1,14 @@
+package com.casejoin.productInventory.dto;
+
+import java.util.List;
+
+/**
+ * A slice of the product change feed.
+ *
+ * @param changes      the changes, by increasing sequence
+ * @param lastSequence the sequence to ask for the next changes from
+ */
+public record ProductChangesDto(
+        List<ProductChangeDto> changes,
+        long lastSequence) {
+}
@@ -1,9 +1,11 @@
 package com.casejoin.productInventory.dto;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.model.Money;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -14,7 +16,37 @@ public record ProductDto(
         String brand,
         Category category,
         Integer quantity,
-        Double price,
+        BigDecimal price,
+        String currency,
         LocalDateTime createdAt,
-        LocalDateTime updatedAt) {
+        LocalDateTime updatedAt,
+        Long version) {
+
+    public ProductDto(UUID id, String name, String description, String brand, Category category, Integer quantity,
+            BigDecimal price, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, description, brand, category, quantity, price, null, createdAt, updatedAt, null);
+    }
+
+    /**
+     * Returns the price in minor units of its currency, the default currency if
+     * none is set.
+     *
+     * @return the price in minor units, or null if there is no price
+     * @throws ArithmeticException      if the price has more decimals than the
+     *                                  currency
+     * @throws IllegalArgumentException if the currency is not valid
+     */
+    public Long priceMinor() {
+        return price != null ? Money.toMinor(price, Money.currencyOf(currency)) : null;
+    }
+
+    /**
+     * Returns when the product was last modified: its update timestamp, or its
+     * creation timestamp if it was never updated.
+     *
+     * @return the last modification timestamp, or null if unknown
+     */
+    public LocalDateTime lastModified() {
+        return updatedAt != null ? updatedAt : createdAt;
+    }
 }
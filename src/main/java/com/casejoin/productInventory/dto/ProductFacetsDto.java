@@ -0,0 +1,13 @@
+package com.casejoin.productInventory.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.casejoin.productInventory.enums.Category;
+
+public record ProductFacetsDto(
+        long total,
+        Map<Category, Long> categories,
+        Map<String, Long> brands,
+        List<PriceBucketDto> prices) {
+}
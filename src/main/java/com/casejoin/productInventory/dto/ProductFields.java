@@ -0,0 +1,62 @@
+package com.casejoin.productInventory.dto;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Sparse fieldsets of {@link ProductDto}: the {@code fields} request parameter
+ * lists the product fields to serialize, e.g. {@code fields=id,name,price}.
+ * <p>
+ * The application {@link com.fasterxml.jackson.databind.ObjectMapper} applies
+ * the {@link Mixin} to {@link ProductDto} and serializes every field by
+ * default; responses to requests with {@code fields} are serialized with the
+ * filter built by {@link #of(String)}.
+ */
+public final class ProductFields {
+
+    /**
+     * Id of the Jackson filter of {@link ProductDto}.
+     */
+    public static final String FILTER = "productFields";
+
+    /**
+     * Serializes every field.
+     */
+    public static final FilterProvider ALL = new SimpleFilterProvider()
+            .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+
+    private ProductFields() {
+    }
+
+    /**
+     * Builds the filter of a {@code fields} parameter. Unknown field names are
+     * ignored.
+     *
+     * @param fields the comma-separated product field names, or null
+     * @return the filter, or {@link #ALL} if no field is listed
+     */
+    public static FilterProvider of(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> names = Arrays.stream(fields.split(",")).map(String::strip).filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                .addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+
+    /**
+     * Jackson mix-in attaching the {@value #FILTER} filter to
+     * {@link ProductDto}.
+     */
+    @JsonFilter(FILTER)
+    public interface Mixin {
+    }
+}
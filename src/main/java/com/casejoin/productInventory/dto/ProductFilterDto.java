@@ -2,12 +2,16 @@ package com.casejoin.productInventory.dto;
 
 import com.casejoin.productInventory.enums.Category;
 
+/**
+ * Product list filter. Prices are in minor units of the default currency, see
+ * {@link com.casejoin.productInventory.model.Money}.
+ */
 public record ProductFilterDto(
                 String name,
                 Category category,
                 String brand,
-                Double minPrice,
-                Double maxPrice,
+                Long minPrice,
+                Long maxPrice,
                 Integer page,
                 Integer pageSize) {
         public ProductFilterDto() {
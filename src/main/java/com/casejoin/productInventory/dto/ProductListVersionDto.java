@@ -0,0 +1,14 @@
+package com.casejoin.productInventory.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Summary of a filtered product list that changes whenever a product of the
+ * list is created, updated or deleted.
+ *
+ * @param count        the number of matching products
+ * @param lastModified the latest modification timestamp of the matching
+ *                     products, or null if there are none
+ */
+public record ProductListVersionDto(long count, LocalDateTime lastModified) {
+}
@@ -0,0 +1,16 @@
+package com.casejoin.productInventory.dto;
+
+import java.util.Map;
+
+import com.casejoin.productInventory.enums.ReportGroup;
+
+/**
+ * Statistics of the products of a filter, in total and by group, ordered by
+ * group name. Products without a value for the group are only counted in the
+ * total.
+ */
+public record ProductReportDto(
+        ReportGroup groupBy,
+        ProductStatsDto total,
+        Map<String, ProductStatsDto> groups) {
+}
@@ -0,0 +1,34 @@
+package com.casejoin.productInventory.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Statistics of a group of products. Prices and the stock value are in the
+ * default currency, over the products priced in it; price fields are null when
+ * there are none.
+ *
+ * @param count       the number of products
+ * @param quantity    the total stock
+ * @param lowStock    the number of products with a stock at or below the
+ *                    threshold of the report
+ * @param stockValue  the sum of price times stock
+ * @param minPrice    the lowest price
+ * @param maxPrice    the highest price
+ * @param medianPrice the 50th percentile of the prices
+ * @param p90Price    the 90th percentile of the prices
+ * @param p99Price    the 99th percentile of the prices
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductStatsDto(
+        long count,
+        long quantity,
+        long lowStock,
+        BigDecimal stockValue,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        BigDecimal medianPrice,
+        BigDecimal p90Price,
+        BigDecimal p99Price) {
+}
@@ -0,0 +1,8 @@
+package com.casejoin.productInventory.dto;
+
+import java.util.List;
+
+public record ProductWindowDto(
+        List<ProductDto> products,
+        String nextCursor) {
+}
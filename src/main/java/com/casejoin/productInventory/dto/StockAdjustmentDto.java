@@ -0,0 +1,6 @@
+package com.casejoin.productInventory.dto;
+
+import java.util.UUID;
+
+public record StockAdjustmentDto(UUID id, int delta) {
+}
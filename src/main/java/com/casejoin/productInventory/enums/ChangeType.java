@@ -0,0 +1,8 @@
+package com.casejoin.productInventory.enums;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    STOCK_ADJUSTED,
+    DELETED,
+}
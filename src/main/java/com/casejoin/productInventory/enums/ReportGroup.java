@@ -0,0 +1,9 @@
+package com.casejoin.productInventory.enums;
+
+/**
+ * What the products of a report are grouped by.
+ */
+public enum ReportGroup {
+    CATEGORY,
+    BRAND
+}
@@ -0,0 +1,22 @@
+package com.casejoin.productInventory.event;
+
+import java.util.UUID;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.ChangeType;
+
+/**
+ * Published by the service layer whenever a product is written, so that
+ * derived read structures can be kept in sync.
+ * <p>
+ * Listeners that should only see committed changes use
+ * {@code @TransactionalEventListener(fallbackExecution = true)}.
+ *
+ * @param type    the kind of change
+ * @param id      the id of the changed product
+ * @param product the product state after the change, or null if the product
+ *                was deleted or updated in place, without being loaded (in
+ *                which case listeners that need its state read it again)
+ */
+public record ProductChangedEvent(ChangeType type, UUID id, ProductDto product) {
+}
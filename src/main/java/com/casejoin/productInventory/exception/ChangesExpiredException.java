@@ -0,0 +1,24 @@
+package com.casejoin.productInventory.exception;
+
+public class ChangesExpiredException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    /** Response header carrying the current sequence of the change feed. */
+    public static final String LAST_SEQUENCE_HEADER = "X-Last-Sequence";
+
+    private final long lastSequence;
+
+    public ChangesExpiredException(String message, long lastSequence) {
+        super(message);
+        this.lastSequence = lastSequence;
+    }
+
+    /**
+     * @return the current sequence of the feed, to resume from once the
+     *         products are read again
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+}
@@ -1,9 +1,12 @@
 package com.casejoin.productInventory.exception;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import com.casejoin.productInventory.dto.ErrorResponseDto;
 
@@ -24,9 +27,47 @@ public class GlobalExceptioonHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @ExceptionHandler(InvalidArgumentException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidArgumentException(InvalidArgumentException ex, WebRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(400, "Invalid argument", ex.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponseDto> handleArgumentTypeMismatch(MethodArgumentTypeMismatchException ex, WebRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(400, "Invalid argument", "Invalid value for " + ex.getName() + ": " + ex.getValue());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponseDto> handleInsufficientStockException(InsufficientStockException ex, WebRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(409, "Insufficient stock", ex.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex, WebRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(409, "Conflict", "Product was modified concurrently, reload it and retry");
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(RequiredArgumentsMissing.class)
     public ResponseEntity<ErrorResponseDto> handleEntityRequiredArgumentsMissing(RequiredArgumentsMissing ex, WebRequest request) {
         ErrorResponseDto errorResponse = new ErrorResponseDto(401, "Required arguments missing", ex.getMessage());
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(ChangesExpiredException.class)
+    public ResponseEntity<ErrorResponseDto> handleChangesExpired(ChangesExpiredException ex, WebRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(410, "Gone", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.GONE)
+                .header(ChangesExpiredException.LAST_SEQUENCE_HEADER, Long.toString(ex.getLastSequence()))
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<ErrorResponseDto> handleWriteQueueFull(WriteQueueFullException ex, WebRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(503, "Service Unavailable", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(errorResponse);
+    }
+}
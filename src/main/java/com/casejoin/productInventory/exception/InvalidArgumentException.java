@@ -0,0 +1,10 @@
+package com.casejoin.productInventory.exception;
+
+public class InvalidArgumentException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidArgumentException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.casejoin.productInventory.exception;
+
+public class WriteQueueFullException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+
+}
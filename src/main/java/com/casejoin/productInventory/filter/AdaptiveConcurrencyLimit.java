@@ -0,0 +1,130 @@
+package com.casejoin.productInventory.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to the latency of the requests, by the
+ * gradient method.
+ * <p>
+ * A short and a long moving average of the request latency are kept. While
+ * the short one stays within {@code tolerance} times the long one, requests
+ * are not queueing and the limit grows by about its square root; once
+ * latency rises, the limit shrinks in proportion, down to half per sample,
+ * so that excess requests are shed before queues build up in the connection
+ * pool and latency collapses. The limit only moves while at least half of it
+ * is in use, otherwise the latency says nothing about it.
+ * <p>
+ * Permits are taken and returned without locking. Samples update the limit
+ * under a lock that is only tried: a sample that finds it held is dropped,
+ * which the averages do not notice.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    /** Weight of a sample in the short average, about the last 10 samples. */
+    private static final double SHORT_SMOOTHING = 0.1;
+
+    /** Weight of the short average in the long one, about the last 600 samples. */
+    private static final double LONG_SMOOTHING = 1.0 / 600;
+
+    /** Weight of a new estimate in the limit. */
+    private static final double LIMIT_SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile int limit;
+
+    // Guarded by lock
+    private double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+
+    /**
+     * @param initialLimit the limit until latency has been measured
+     * @param minLimit     the lowest limit
+     * @param maxLimit     the highest limit
+     * @param tolerance    how much the short latency average may exceed the
+     *                     long one before the limit shrinks
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.tolerance = Math.max(tolerance, 1);
+        this.estimatedLimit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Takes a permit, unless the limit is reached.
+     *
+     * @return whether a permit was taken
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a permit and adapts the limit to the latency of its request.
+     *
+     * @param rttNanos the time the request took
+     */
+    public void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            update(rttNanos, current);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(double rtt, int current) {
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+            return;
+        }
+        shortRtt += (rtt - shortRtt) * SHORT_SMOOTHING;
+        longRtt += (shortRtt - longRtt) * LONG_SMOOTHING;
+        if (longRtt > 2 * shortRtt) {
+            // Latency dropped for good: let the long average catch up sooner
+            longRtt *= 0.95;
+        }
+        if (current < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.clamp(tolerance * longRtt / shortRtt, 0.5, 1.0);
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.clamp(estimatedLimit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING,
+                minLimit, maxLimit);
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return the current limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the number of permits taken
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
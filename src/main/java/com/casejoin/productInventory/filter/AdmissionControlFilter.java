@@ -0,0 +1,273 @@
+package com.casejoin.productInventory.filter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.casejoin.productInventory.dto.ErrorResponseDto;
+import com.casejoin.productInventory.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admission control of the API: per-client rate limiting and adaptive load
+ * shedding, both answered with 429 and a Retry-After header.
+ * <p>
+ * Each client, identified by its {@value #API_KEY_HEADER} header if it holds
+ * one of the configured keys, or else by its address, has a
+ * {@link TokenBucket}; unknown keys are ignored, so that a client cannot get
+ * fresh buckets by sending new keys. A request costs one token, plus one per
+ * {@code rowsPerToken} rows of its page size and one per filter parameter, so
+ * that a client paging with large pages runs out of tokens as fast as one
+ * sending many small requests. The export and the report, which read every
+ * matching product whatever the page size, cost {@code scanCost} tokens.
+ * Admitted requests then take a permit of the {@link AdaptiveConcurrencyLimit},
+ * which sheds the excess once latency starts to rise; the permit of a request
+ * processed asynchronously, such as a streamed export, is held until the
+ * response completes.
+ * <p>
+ * Rejections ({@code product.admission.rejected}, by client and reason) and
+ * requests in flight ({@code product.admission.in-flight}, by client) are
+ * tagged with the client; past {@code taggedClients} clients, new ones share
+ * the {@value #OTHER_CLIENTS} tag, so that the number of series stays bounded.
+ * API keys are tagged by a digest, never in clear.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    /** Request parameters that add a condition to the query. */
+    private static final List<String> FILTER_PARAMETERS = List.of("name", "category", "brand", "minPrice",
+            "maxPrice", "q", "after");
+
+    /** Endpoints that read every matching product, by path suffix. */
+    private static final List<String> SCAN_PATHS = List.of("/product/export", "/product/report");
+
+    private static final String OTHER_CLIENTS = "other";
+
+    private final double tokensPerSecond;
+    private final int burst;
+    private final int rowsPerToken;
+    private final int scanCost;
+    private final int taggedClients;
+    private final Set<String> apiKeys;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<String, ClientMeters> clientMeters = new ConcurrentHashMap<>();
+
+    public AdmissionControlFilter(double tokensPerSecond, int burst, int rowsPerToken, int scanCost, int maxClients,
+            int taggedClients, Set<String> apiKeys, AdaptiveConcurrencyLimit concurrencyLimit,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.tokensPerSecond = tokensPerSecond;
+        this.burst = burst;
+        this.rowsPerToken = Math.max(rowsPerToken, 1);
+        this.scanCost = Math.max(scanCost, 1);
+        this.taggedClients = taggedClients;
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.concurrencyLimit = concurrencyLimit;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        // An idle client's bucket refills completely within the expiry, so dropping it loses nothing
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos((long) (Math.max(burst, 1) * 1e9 / tokensPerSecond))
+                        .plusMinutes(1))
+                .build();
+        Gauge.builder("product.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit of the API")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientOf(request);
+        ClientMeters meters = metersOf(client);
+
+        long now = System.nanoTime();
+        long wait = buckets.get(client, key -> new TokenBucket(tokensPerSecond, burst, now))
+                .tryAcquire(costOf(request), now);
+        if (wait > 0) {
+            meters.rateLimited.increment();
+            reject(response, TimeUnit.NANOSECONDS.toSeconds(wait - 1) + 1, "Rate limit exceeded");
+            return;
+        }
+
+        if (!concurrencyLimit.tryAcquire()) {
+            meters.shed.increment();
+            reject(response, 1, "Too many concurrent requests");
+            return;
+        }
+
+        meters.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // The response is written by another thread, the async dispatch is not filtered
+                request.getAsyncContext().addListener(new Release(meters, start));
+            } else {
+                release(meters, start);
+            }
+        }
+    }
+
+    private void release(ClientMeters meters, long start) {
+        meters.inFlight.decrementAndGet();
+        concurrencyLimit.release(System.nanoTime() - start);
+    }
+
+    /**
+     * Computes the tokens a request costs.
+     *
+     * @param request the request
+     * @return the cost, at least 1
+     */
+    int costOf(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        for (String scanPath : SCAN_PATHS) {
+            if (path.endsWith(scanPath)) {
+                return scanCost;
+            }
+        }
+
+        int pageSize = ProductService.DEFAULT_PAGE_SIZE;
+        String value = request.getParameter("pageSize");
+        if (value != null) {
+            try {
+                pageSize = Math.clamp(Integer.parseInt(value.trim()), 1, ProductService.MAX_PAGE_SIZE);
+            } catch (NumberFormatException e) {
+                // Rejected by the controller
+            }
+        }
+
+        int cost = 1 + Math.ceilDiv(pageSize, rowsPerToken);
+        for (String parameter : FILTER_PARAMETERS) {
+            if (StringUtils.hasText(request.getParameter(parameter))) {
+                cost++;
+            }
+        }
+        return cost;
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key-" + DigestUtils.md5DigestAsHex(apiKey.getBytes(StandardCharsets.UTF_8)).substring(0, 12);
+        }
+        return request.getRemoteAddr();
+    }
+
+    private ClientMeters metersOf(String client) {
+        ClientMeters meters = clientMeters.get(client);
+        if (meters != null) {
+            return meters;
+        }
+        String tag = clientMeters.size() < taggedClients ? client : OTHER_CLIENTS;
+        return clientMeters.computeIfAbsent(tag, key -> new ClientMeters(key, meterRegistry));
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponseDto(429, "Too Many Requests", message));
+    }
+
+    /**
+     * Releases the permit of an asynchronous request once its response
+     * completes, whether normally, on error or on timeout.
+     */
+    private final class Release implements AsyncListener {
+
+        private final ClientMeters meters;
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Release(ClientMeters meters, long start) {
+            this.meters = meters;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (released.compareAndSet(false, true)) {
+                release(meters, start);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // Followed by onComplete
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // Followed by onComplete
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Restarting the request drops the listeners, the permit stays taken until it completes
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    /**
+     * Meters of a client tag.
+     */
+    private static final class ClientMeters {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter rateLimited;
+        private final Counter shed;
+
+        ClientMeters(String client, MeterRegistry meterRegistry) {
+            this.rateLimited = rejected(client, "rate", meterRegistry);
+            this.shed = rejected(client, "concurrency", meterRegistry);
+            Gauge.builder("product.admission.in-flight", inFlight, AtomicInteger::get)
+                    .description("API requests being processed, by client")
+                    .tag("client", client)
+                    .register(meterRegistry);
+        }
+
+        private static Counter rejected(String client, String reason, MeterRegistry meterRegistry) {
+            return Counter.builder("product.admission.rejected")
+                    .description("API requests rejected with 429, by client and reason")
+                    .tag("client", client)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+    }
+}
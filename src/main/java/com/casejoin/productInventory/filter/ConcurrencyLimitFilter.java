@@ -0,0 +1,125 @@
+package com.casejoin.productInventory.filter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.casejoin.productInventory.dto.ErrorResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Bounds the number of API requests processed at the same time.
+ * <p>
+ * With virtual threads Tomcat no longer caps concurrency through its worker
+ * pool, so a burst would otherwise pile every request up on the connection
+ * pool until they time out. Requests beyond the limit wait up to the queue
+ * timeout for a permit and are then rejected with 503 and a Retry-After
+ * header. The permit of a request processed asynchronously, such as a
+ * streamed export, is held until the response completes.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final long queueTimeoutNanos;
+    private final ObjectMapper objectMapper;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(int maxInFlight, Duration queueTimeout, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxInFlight, true);
+        this.maxInFlight = maxInFlight;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.objectMapper = objectMapper;
+        this.rejected = Counter.builder("product.concurrency.rejected")
+                .description("Requests rejected because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("product.concurrency.in-flight", this, filter -> filter.maxInFlight - filter.permits.availablePermits())
+                .description("Requests being processed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ErrorResponseDto(503, "Service Unavailable", "Too many concurrent requests"));
+            return;
+        }
+
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // The response is written by another thread, the async dispatch is not filtered
+                request.getAsyncContext().addListener(new Release());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Releases the permit of an asynchronous request once its response
+     * completes, whether normally, on error or on timeout.
+     */
+    private final class Release implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // Followed by onComplete
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // Followed by onComplete
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Restarting the request drops the listeners, the permit stays taken until it completes
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
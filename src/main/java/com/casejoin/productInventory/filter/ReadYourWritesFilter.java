@@ -0,0 +1,70 @@
+package com.casejoin.productInventory.filter;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import com.casejoin.productInventory.datasource.ReadYourWrites;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Carries the time of the last write of a client between requests, so its
+ * reads go to the primary until the replicas had time to catch up.
+ * <p>
+ * The first write of a request sets a cookie with its time, valid for the
+ * read-your-writes window. Requests sending the cookie start pinned to the
+ * primary while the write is within the window.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the cookie with the time of the last write, in epoch millis.
+     */
+    public static final String COOKIE = "product-last-write";
+
+    private final ReadYourWrites readYourWrites;
+
+    public ReadYourWritesFilter(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean[] written = { false };
+        readYourWrites.begin(lastWrite(request), writtenAt -> {
+            // Writes happen before the response body, the header can still be added
+            if (!written[0] && !response.isCommitted()) {
+                Cookie cookie = new Cookie(COOKIE, Long.toString(writtenAt));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.ceilDiv(readYourWrites.getWindowMillis(), 1000));
+                response.addCookie(cookie);
+                written[0] = true;
+            }
+        });
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readYourWrites.end();
+        }
+    }
+
+    private static Long lastWrite(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE);
+        if (cookie == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.casejoin.productInventory.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm.
+ * <p>
+ * Instead of a token count refilled by a timer, the bucket keeps the
+ * theoretical arrival time of the next request: each admitted request pushes
+ * it forward by the time its tokens take to refill, and a request is admitted
+ * while that time stays within the burst capacity of now. The whole state is
+ * a single {@link AtomicLong} updated with compare-and-set, so concurrent
+ * requests of a client never block each other.
+ */
+public final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final int capacity;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param tokensPerSecond the refill rate
+     * @param capacity        the number of tokens of a full bucket, the
+     *                        largest burst
+     * @param nowNanos        the current {@link System#nanoTime()}
+     */
+    public TokenBucket(double tokensPerSecond, int capacity, long nowNanos) {
+        this.nanosPerToken = Math.max((long) (1_000_000_000L / tokensPerSecond), 1);
+        this.capacity = Math.max(capacity, 1);
+        this.burstNanos = this.capacity * nanosPerToken;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes tokens from the bucket, if it holds enough of them. A cost above
+     * the capacity takes the full bucket, so that it can still be admitted.
+     *
+     * @param tokens   the cost of the request
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return 0 if the tokens were taken, otherwise how long to wait, in
+     *         nanoseconds, until the bucket holds enough of them
+     */
+    public long tryAcquire(int tokens, long nowNanos) {
+        long cost = Math.min(Math.max(tokens, 1), capacity) * nanosPerToken;
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = (arrival - nowNanos > 0 ? arrival : nowNanos) + cost;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
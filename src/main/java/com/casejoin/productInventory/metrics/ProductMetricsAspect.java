@@ -0,0 +1,96 @@
+package com.casejoin.productInventory.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.casejoin.productInventory.dto.ProductFilterDto;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Observes every public {@code ProductService} method and every
+ * {@code ProductRepository} call.
+ * <p>
+ * Observations are recorded as the {@value #SERVICE} and {@value #REPOSITORY}
+ * timers (and as spans, when a tracer is configured), tagged with the method
+ * and with the {@link ProductFilterDto} filters that were active. Repository
+ * calls inherit the filters of the service call they are made from. Their
+ * percentiles are configured by the
+ * {@code management.metrics.distribution.percentiles.*} properties.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProductMetricsAspect {
+
+    public static final String SERVICE = "product.service";
+    public static final String REPOSITORY = "product.repository";
+
+    private static final String METHOD = "method";
+    private static final String FILTERS = "filters";
+    private static final String NO_FILTERS = "none";
+
+    private final ObservationRegistry observationRegistry;
+
+    public ProductMetricsAspect(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Around("execution(public * com.casejoin.productInventory.service.ProductService.*(..))")
+    public Object observeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        String filters = NO_FILTERS;
+        for (Object arg : joinPoint.getArgs()) {
+            if (arg instanceof ProductFilterDto filter) {
+                filters = activeFilters(filter);
+            }
+        }
+        return observe(SERVICE, joinPoint, filters);
+    }
+
+    @Around("this(com.casejoin.productInventory.repository.ProductRepository)")
+    public Object observeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        Observation parent = observationRegistry.getCurrentObservation();
+        KeyValue filters = parent != null ? parent.getContextView().getLowCardinalityKeyValue(FILTERS) : null;
+        return observe(REPOSITORY, joinPoint, filters != null ? filters.getValue() : NO_FILTERS);
+    }
+
+    private Object observe(String name, ProceedingJoinPoint joinPoint, String filters) throws Throwable {
+        return Observation.createNotStarted(name, observationRegistry)
+                .lowCardinalityKeyValue(METHOD, joinPoint.getSignature().getName())
+                .lowCardinalityKeyValue(FILTERS, filters)
+                .observeChecked(() -> joinPoint.proceed());
+    }
+
+    /**
+     * Lists the filters set on the given product filter, e.g.
+     * {@code category,price}, or {@value #NO_FILTERS}.
+     *
+     * @param filter the product filter
+     * @return the active filters, in a fixed order
+     */
+    static String activeFilters(ProductFilterDto filter) {
+        List<String> filters = new ArrayList<>(4);
+        if (filter.name() != null && !filter.name().isBlank()) {
+            filters.add("name");
+        }
+        if (filter.category() != null) {
+            filters.add("category");
+        }
+        if (filter.brand() != null && !filter.brand().isBlank()) {
+            filters.add("brand");
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            filters.add("price");
+        }
+        return filters.isEmpty() ? NO_FILTERS : String.join(",", filters);
+    }
+}
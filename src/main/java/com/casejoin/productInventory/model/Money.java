@@ -0,0 +1,74 @@
+package com.casejoin.productInventory.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Conversions between decimal amounts and the fixed-point amounts stored in the
+ * database: a {@code long} number of minor units (e.g. cents) of an ISO 4217
+ * currency.
+ */
+public final class Money {
+
+    /**
+     * Currency of the products created without one, and of the price filters.
+     */
+    public static final String DEFAULT_CURRENCY = "BRL";
+
+    private Money() {
+    }
+
+    /**
+     * Validates a currency code, defaulting to {@value #DEFAULT_CURRENCY}.
+     *
+     * @param currency the ISO 4217 currency code, or null
+     * @return the currency code
+     * @throws IllegalArgumentException if the currency code is not valid
+     */
+    public static String currencyOf(String currency) {
+        return currency == null ? DEFAULT_CURRENCY : Currency.getInstance(currency).getCurrencyCode();
+    }
+
+    /**
+     * Converts an amount to minor units, exactly.
+     *
+     * @param amount   the amount
+     * @param currency the currency code
+     * @return the amount in minor units
+     * @throws ArithmeticException if the amount has more decimals than the
+     *                             currency, or does not fit in a long
+     */
+    public static long toMinor(BigDecimal amount, String currency) {
+        return toMinor(amount, currency, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Converts an amount to minor units, rounding the extra decimals.
+     *
+     * @param amount   the amount
+     * @param currency the currency code
+     * @param rounding how to round the decimals the currency does not have
+     * @return the amount in minor units
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public static long toMinor(BigDecimal amount, String currency, RoundingMode rounding) {
+        return amount.setScale(scale(currency), rounding).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts an amount in minor units back to a decimal amount, with the
+     * number of decimals of the currency.
+     *
+     * @param minor    the amount in minor units
+     * @param currency the currency code
+     * @return the amount
+     */
+    public static BigDecimal toAmount(long minor, String currency) {
+        return BigDecimal.valueOf(minor, scale(currency));
+    }
+
+    private static int scale(String currency) {
+        return Math.max(Currency.getInstance(currency).getDefaultFractionDigits(), 0);
+    }
+}
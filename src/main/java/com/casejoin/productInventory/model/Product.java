@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import com.casejoin.productInventory.enums.Category;
 
@@ -17,6 +18,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -55,14 +57,37 @@ public class Product implements Serializable {
 
     private Integer quantity;
 
-    private Double price;
+    /**
+     * Price as a whole number of minor units of the currency (e.g. cents), so
+     * comparisons and sums are exact; see {@link Money}.
+     */
+    @Column(name = "price_minor")
+    private Long priceMinor;
+
+    @Column(nullable = false, length = 3)
+    @Builder.Default
+    private String currency = Money.DEFAULT_CURRENCY;
 
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    /**
+     * Set on every insert and update made through the entity; in-place updates
+     * set it explicitly.
+     */
+    @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    /**
+     * Optimistic locking version, incremented by every update, including the
+     * in-place stock adjustments.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     /**
      * Set the creation timestamp if it hasn't been set yet.
      * <p>
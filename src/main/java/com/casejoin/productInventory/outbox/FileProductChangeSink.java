@@ -0,0 +1,69 @@
+package com.casejoin.productInventory.outbox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.casejoin.productInventory.dto.ProductChangeDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Appends the published product changes to a local file, as JSON lines, for
+ * local consumers and tests. Enabled by setting {@code product.outbox.file}.
+ * <p>
+ * Each batch is forced to disk before the relay commits it. A batch published
+ * again after a failure is appended again, with the same sequences.
+ */
+@Component
+@ConditionalOnProperty(name = "product.outbox.file")
+public class FileProductChangeSink implements ProductChangeSink, Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public FileProductChangeSink(ObjectMapper objectMapper, @Value("${product.outbox.file}") Path file)
+            throws IOException {
+        this.objectMapper = objectMapper;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void publish(List<ProductChangeDto> changes) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (ProductChangeDto change : changes) {
+            lines.write(objectMapper.writeValueAsBytes(change));
+            lines.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        lock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
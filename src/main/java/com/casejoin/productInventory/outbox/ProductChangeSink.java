@@ -0,0 +1,25 @@
+package com.casejoin.productInventory.outbox;
+
+import java.util.List;
+
+import com.casejoin.productInventory.dto.ProductChangeDto;
+
+/**
+ * Destination of the product changes published by the
+ * {@link ProductOutboxRelay}, e.g. a message broker.
+ * <p>
+ * Delivery is at least once: a batch is published again, with the same
+ * sequences, when a sink fails or the relay transaction does not commit.
+ * Consumers skip the sequences they have already seen.
+ */
+public interface ProductChangeSink {
+
+    /**
+     * Publishes a batch of changes.
+     *
+     * @param changes the changes, by increasing sequence
+     * @throws Exception if the batch could not be published, in which case it
+     *                   is published again by the next relay run
+     */
+    void publish(List<ProductChangeDto> changes) throws Exception;
+}
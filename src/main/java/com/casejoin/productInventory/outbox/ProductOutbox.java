@@ -0,0 +1,198 @@
+package com.casejoin.productInventory.outbox;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.casejoin.productInventory.dto.ProductChangeDto;
+import com.casejoin.productInventory.dto.ProductChangesDto;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.ChangeType;
+import com.casejoin.productInventory.event.ProductChangedEvent;
+import com.casejoin.productInventory.exception.ChangesExpiredException;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+
+/**
+ * Transactional outbox of the product changes, in the
+ * {@code product_outbox} table.
+ * <p>
+ * Every {@link ProductChangedEvent} is written to the outbox in the
+ * transaction of the change, so a change is in the outbox if and only if it
+ * is committed. Rows only hold the kind of change and the product id, which
+ * keeps writes cheap; the product state is read when the changes are
+ * published or fetched, with one query per batch.
+ * <p>
+ * The {@link ProductOutboxRelay} numbers the committed changes in the order it
+ * finds them: a change committed after a batch was published always gets a
+ * higher sequence, so consumers following the sequences never miss a change.
+ */
+@Component
+public class ProductOutbox {
+
+    /** Maximum number of changes of a batch or of a feed slice. */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String INSERT = "INSERT INTO product_outbox (product_id, type, created_at) "
+            + "VALUES (?, ?, LOCALTIMESTAMP)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+
+    public ProductOutbox(JdbcTemplate jdbcTemplate, ProductRepository productRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Writes a change to the outbox, in the transaction of the change.
+     *
+     * @param event the product change
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onProductChanged(ProductChangedEvent event) {
+        jdbcTemplate.update(INSERT, event.id(), event.type().name());
+    }
+
+    /**
+     * Numbers the next unpublished changes and hands them to the sinks, in a
+     * single transaction.
+     * <p>
+     * The relay row is locked for the duration, so a single relay publishes at
+     * a time, even across instances. If a sink fails, the transaction is rolled
+     * back and the same changes are numbered alike by the next run.
+     *
+     * @param batchSize the maximum number of changes to publish
+     * @param sinks     where the changes are published
+     * @return the number of changes published
+     * @throws Exception if a sink failed
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int publish(int batchSize, List<ProductChangeSink> sinks) throws Exception {
+        long lastSequence = jdbcTemplate.queryForObject(
+                "SELECT last_seq FROM product_outbox_relay WHERE id = 1 FOR UPDATE", Long.class);
+        List<Row> rows = jdbcTemplate.query("SELECT id, type, product_id, created_at, seq FROM product_outbox "
+                + "WHERE seq IS NULL ORDER BY id LIMIT ?", Row.MAPPER, Math.min(batchSize, MAX_BATCH_SIZE));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Row> numbered = new ArrayList<>(rows.size());
+        List<Object[]> arguments = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Row withSequence = row.withSequence(++lastSequence);
+            numbered.add(withSequence);
+            arguments.add(new Object[] { withSequence.sequence(), withSequence.id() });
+        }
+        jdbcTemplate.batchUpdate("UPDATE product_outbox SET seq = ?, published_at = LOCALTIMESTAMP WHERE id = ?",
+                arguments);
+        jdbcTemplate.update("UPDATE product_outbox_relay SET last_seq = ? WHERE id = 1", lastSequence);
+
+        List<ProductChangeDto> changes = toChanges(numbered);
+        for (ProductChangeSink sink : sinks) {
+            sink.publish(changes);
+        }
+        return changes.size();
+    }
+
+    /**
+     * Reads the published changes that follow a sequence.
+     *
+     * @param since the last sequence already seen, 0 to start from the oldest
+     *              retained change
+     * @param limit the maximum number of changes, at most
+     *              {@value #MAX_BATCH_SIZE}
+     * @return the changes, and the sequence to ask for the next ones from
+     * @throws ChangesExpiredException if changes following the sequence have
+     *                                 already been purged, and the consumer has
+     *                                 to read the products again; it carries the
+     *                                 current sequence, to resume from once they
+     *                                 are read
+     */
+    @Transactional(readOnly = true)
+    public ProductChangesDto changesSince(long since, int limit) throws ChangesExpiredException {
+        long after = Math.max(since, 0);
+        List<Row> rows = jdbcTemplate.query("SELECT id, type, product_id, created_at, seq FROM product_outbox "
+                + "WHERE seq > ? ORDER BY seq LIMIT ?", Row.MAPPER, after,
+                Math.max(Math.min(limit, MAX_BATCH_SIZE), 1));
+
+        // Sequences have no gaps, a missing one was purged; a new consumer starts from what is retained
+        if (after > 0) {
+            long next = rows.isEmpty() ? lastSequence() + 1 : rows.get(0).sequence();
+            if (next > after + 1) {
+                throw new ChangesExpiredException("Changes since " + after + " are no longer retained",
+                        lastSequence());
+            }
+        }
+
+        return new ProductChangesDto(toChanges(rows),
+                rows.isEmpty() ? after : rows.get(rows.size() - 1).sequence());
+    }
+
+    private long lastSequence() {
+        return jdbcTemplate.queryForObject("SELECT last_seq FROM product_outbox_relay WHERE id = 1", Long.class);
+    }
+
+    /**
+     * Deletes the changes published before the given time.
+     *
+     * @param before the oldest publication time to keep
+     * @return the number of changes deleted
+     */
+    @Transactional
+    public int purge(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM product_outbox WHERE published_at < ?", before);
+    }
+
+    /**
+     * Reads the current state of the products of some changes, with one query.
+     *
+     * @param rows the changes
+     * @return the changes with the state of their product
+     */
+    private List<ProductChangeDto> toChanges(List<Row> rows) {
+        Set<UUID> ids = new LinkedHashSet<>();
+        rows.forEach(row -> ids.add(row.productId()));
+        Map<UUID, ProductDto> products = new HashMap<>(ids.size() * 2);
+        if (!ids.isEmpty()) {
+            Specification<Product> byIds = (root, query, builder) -> root.get("id").in(ids);
+            productRepository.findAllAsDto(byIds, Pageable.unpaged())
+                    .forEach(product -> products.put(product.id(), product));
+        }
+
+        return rows.stream().map(row -> new ProductChangeDto(row.sequence(), row.type(), row.productId(),
+                products.get(row.productId()), row.createdAt())).toList();
+    }
+
+    /**
+     * A row of the outbox; the sequence is 0 until the change is published.
+     */
+    private record Row(long id, ChangeType type, UUID productId, LocalDateTime createdAt, long sequence) {
+
+        private static final RowMapper<Row> MAPPER = (resultSet, rowNum) -> new Row(
+                resultSet.getLong("id"),
+                ChangeType.valueOf(resultSet.getString("type")),
+                resultSet.getObject("product_id", UUID.class),
+                resultSet.getObject("created_at", LocalDateTime.class),
+                resultSet.getLong("seq"));
+
+        private Row withSequence(long sequence) {
+            return new Row(id, type, productId, createdAt, sequence);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.casejoin.productInventory.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes the changes of the {@link ProductOutbox} to the
+ * {@link ProductChangeSink}s, in batches of up to
+ * {@code product.outbox.relay.batch-size}, every
+ * {@code product.outbox.relay.interval}. Published changes are kept for the
+ * change feed during {@code product.outbox.retention}, then purged.
+ * <p>
+ * Changes are numbered even when there is no sink, so the feed of
+ * {@link ProductOutbox#changesSince(long, int)} works on its own. A failed
+ * batch is logged and published again by the next run.
+ */
+@Component
+public class ProductOutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductOutboxRelay.class);
+
+    private final ProductOutbox productOutbox;
+    private final ObjectProvider<ProductChangeSink> sinks;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final Duration retention;
+    private final boolean enabled;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean running;
+
+    private final Counter published;
+    private final Counter failures;
+
+    public ProductOutboxRelay(ProductOutbox productOutbox, ObjectProvider<ProductChangeSink> sinks,
+            MeterRegistry meterRegistry,
+            @Value("${product.outbox.relay.enabled:true}") boolean enabled,
+            @Value("${product.outbox.relay.batch-size:500}") int batchSize,
+            @Value("${product.outbox.relay.interval:200ms}") Duration interval,
+            @Value("${product.outbox.retention:7d}") Duration retention) {
+        this.productOutbox = productOutbox;
+        this.sinks = sinks;
+        this.enabled = enabled;
+        this.batchSize = Math.max(Math.min(batchSize, ProductOutbox.MAX_BATCH_SIZE), 1);
+        this.intervalMillis = interval.toMillis();
+        this.retention = retention;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("outbox-relay").daemon().factory());
+
+        this.published = Counter.builder("product.outbox.published")
+                .description("Product changes published by the outbox relay")
+                .register(meterRegistry);
+        this.failures = Counter.builder("product.outbox.failures")
+                .description("Outbox relay runs that failed and will be retried")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Relays every interval, and purges the published changes older than the
+     * retention every hour, or every retention if shorter.
+     */
+    @Override
+    public void start() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::relay, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            long purgeMillis = Math.min(retention.toMillis(), Duration.ofHours(1).toMillis());
+            scheduler.scheduleWithFixedDelay(this::purge, 0, purgeMillis, TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        scheduler.shutdownNow();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Publishes the pending changes, batch after batch, until none is left or
+     * a batch fails.
+     *
+     * @return the number of changes published
+     */
+    public long relay() {
+        List<ProductChangeSink> targets = sinks.orderedStream().toList();
+        long total = 0;
+        lock.lock();
+        try {
+            int count;
+            do {
+                count = productOutbox.publish(batchSize, targets);
+                published.increment(count);
+                total += count;
+            } while (count == batchSize);
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Publishing product changes failed, retrying in {} ms: {}", intervalMillis, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+        return total;
+    }
+
+    /**
+     * Deletes the changes published longer than the retention ago.
+     */
+    public void purge() {
+        try {
+            int purged = productOutbox.purge(LocalDateTime.now().minus(retention));
+            if (purged > 0) {
+                log.info("Purged {} product changes published more than {} ago", purged, retention);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Purging product changes failed: {}", e.getMessage());
+        }
+    }
+}
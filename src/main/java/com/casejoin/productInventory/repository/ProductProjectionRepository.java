@@ -0,0 +1,72 @@
+package com.casejoin.productInventory.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.casejoin.productInventory.dto.FacetCountDto;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductListVersionDto;
+import com.casejoin.productInventory.model.Product;
+
+/**
+ * Read-only queries that map rows straight to {@link ProductDto}, without
+ * loading {@link Product} entities into the persistence context.
+ */
+public interface ProductProjectionRepository {
+
+    /**
+     * Retrieves the products matching the given specification as DTOs.
+     * <p>
+     * Only the requested page is read and no count query is issued.
+     *
+     * @param specification the filter to apply, or null to match every product
+     * @param pageable      the page and sort to apply
+     * @return the matching products
+     */
+    List<ProductDto> findAllAsDto(Specification<Product> specification, Pageable pageable);
+
+    /**
+     * Streams the products matching the given specification as DTOs, through a
+     * forward-only cursor.
+     * <p>
+     * Rows are fetched from the driver in batches of the given size and nothing
+     * is kept in the persistence context, so memory use does not depend on the
+     * number of products. The stream must be consumed, and closed, within a
+     * transaction.
+     *
+     * @param specification the filter to apply, or null to match every product
+     * @param sort          the order of the products
+     * @param fetchSize     the number of rows to fetch per round trip
+     * @return the matching products
+     */
+    Stream<ProductDto> streamAllAsDto(Specification<Product> specification, Sort sort, int fetchSize);
+
+    /**
+     * Counts the products matching the given specification by category, brand
+     * and price bucket, in one grouped query.
+     *
+     * @param specification   the filter to apply, or null to match every
+     *                        product
+     * @param priceBoundaries the ascending lower bounds of the price buckets, in
+     *                        minor units of the default currency; prices below
+     *                        the first one fall in the first bucket, products
+     *                        without a price or priced in another currency in
+     *                        none
+     * @return the number of products of each category, brand and price bucket
+     *         combination
+     */
+    List<FacetCountDto> countFacets(Specification<Product> specification, long[] priceBoundaries);
+
+    /**
+     * Computes, in one aggregate query, the number of products matching the given
+     * specification and their latest modification timestamp.
+     *
+     * @param specification the filter to apply, or null to match every product
+     * @return the version of the matching product list
+     */
+    ProductListVersionDto findListVersion(Specification<Product> specification);
+}
@@ -0,0 +1,166 @@
+package com.casejoin.productInventory.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.casejoin.productInventory.dto.FacetCountDto;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductListVersionDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.model.Money;
+import com.casejoin.productInventory.model.Product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+@Transactional(readOnly = true)
+public class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductDto> findAllAsDto(Specification<Product> specification, Pageable pageable) {
+        TypedQuery<Tuple> typedQuery = createDtoQuery(specification, pageable.getSort());
+
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        return typedQuery.getResultList().stream().map(ProductProjectionRepositoryImpl::toDto).toList();
+    }
+
+    @Override
+    public Stream<ProductDto> streamAllAsDto(Specification<Product> specification, Sort sort, int fetchSize) {
+        return createDtoQuery(specification, sort)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()
+                .map(ProductProjectionRepositoryImpl::toDto);
+    }
+
+    /**
+     * Maps a projected row to its DTO, converting the price from minor units.
+     *
+     * @param row the row selected by {@link #createDtoQuery(Specification, Sort)}
+     * @return the product DTO
+     */
+    private static ProductDto toDto(Tuple row) {
+        Long priceMinor = row.get(6, Long.class);
+        String currency = row.get(7, String.class);
+        return new ProductDto(
+                row.get(0, UUID.class),
+                row.get(1, String.class),
+                row.get(2, String.class),
+                row.get(3, String.class),
+                row.get(4, Category.class),
+                row.get(5, Integer.class),
+                priceMinor != null ? Money.toAmount(priceMinor, currency) : null,
+                currency,
+                row.get(8, LocalDateTime.class),
+                row.get(9, LocalDateTime.class),
+                row.get(10, Long.class));
+    }
+
+    private TypedQuery<Tuple> createDtoQuery(Specification<Product> specification, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+
+        query.multiselect(
+                root.get("id"),
+                root.get("name"),
+                root.get("description"),
+                root.get("brand"),
+                root.get("category"),
+                root.get("quantity"),
+                root.get("priceMinor"),
+                root.get("currency"),
+                root.get("createdAt"),
+                root.get("updatedAt"),
+                root.get("version"));
+
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, builder));
+        }
+
+        return entityManager.createQuery(query).setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    @Override
+    public List<FacetCountDto> countFacets(Specification<Product> specification, long[] priceBoundaries) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FacetCountDto> query = builder.createQuery(FacetCountDto.class);
+        Root<Product> root = query.from(Product.class);
+
+        Path<Long> price = root.get("priceMinor");
+        CriteriaBuilder.Case<Integer> bucket = builder.<Integer>selectCase()
+                .when(builder.or(builder.isNull(price), builder.notEqual(root.get("currency"), Money.DEFAULT_CURRENCY)),
+                        builder.nullLiteral(Integer.class));
+        for (int i = priceBoundaries.length - 1; i > 0; i--) {
+            bucket = bucket.when(builder.ge(price, priceBoundaries[i]), i);
+        }
+        Expression<Integer> bucketOrFirst = bucket.otherwise(0);
+
+        query.select(builder.construct(FacetCountDto.class,
+                root.get("category"),
+                root.get("brand"),
+                bucketOrFirst,
+                builder.count(root)));
+
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.groupBy(root.get("category"), root.get("brand"), bucketOrFirst);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public ProductListVersionDto findListVersion(Specification<Product> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductListVersionDto> query = builder.createQuery(ProductListVersionDto.class);
+        Root<Product> root = query.from(Product.class);
+
+        query.select(builder.construct(ProductListVersionDto.class,
+                builder.count(root),
+                builder.greatest(builder.coalesce(root.<LocalDateTime>get("updatedAt"),
+                        root.<LocalDateTime>get("createdAt")))));
+
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
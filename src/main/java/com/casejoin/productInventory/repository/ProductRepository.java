@@ -4,11 +4,39 @@ import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.casejoin.productInventory.model.Product;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product>,
+        ProductProjectionRepository, ProductStockRepository, ProductUpdateRepository {
 
+    /**
+     * Adds the given delta to the quantity of a product, in a single conditional
+     * update that does not load the product.
+     *
+     * @param id    the product id
+     * @param delta the quantity delta, negative to remove stock
+     * @return 1 if the delta was applied, 0 if the product does not exist or the
+     *         delta would take its quantity below zero
+     */
+    @Modifying
+    @Query("update Product p set p.quantity = coalesce(p.quantity, 0) + :delta, p.version = p.version + 1, "
+            + "p.updatedAt = local datetime "
+            + "where p.id = :id and coalesce(p.quantity, 0) + :delta >= 0")
+    int adjustQuantity(@Param("id") UUID id, @Param("delta") int delta);
+
+    /**
+     * Deletes a product in a single statement, without loading it.
+     *
+     * @param id the product id
+     * @return 1 if the product was deleted, 0 if it does not exist
+     */
+    @Modifying
+    @Query("delete from Product p where p.id = :id")
+    int deleteProductById(@Param("id") UUID id);
 }
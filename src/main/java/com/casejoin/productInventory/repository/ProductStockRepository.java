@@ -0,0 +1,25 @@
+package com.casejoin.productInventory.repository;
+
+import java.util.SortedMap;
+import java.util.UUID;
+
+/**
+ * Stock adjustments applied in place, without loading the products.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Adds the given deltas to the quantity of the products, in one JDBC batch
+     * of conditional updates.
+     * <p>
+     * A delta is only applied if it does not take the quantity below zero.
+     * Products are updated in key order, so concurrent batches lock rows in the
+     * same order.
+     *
+     * @param deltas the quantity delta of each product id
+     * @return the number of rows updated for each delta, in key order: 1 if the
+     *         delta was applied, 0 if the product does not exist or does not have
+     *         enough stock
+     */
+    int[] adjustQuantities(SortedMap<UUID, Integer> deltas);
+}
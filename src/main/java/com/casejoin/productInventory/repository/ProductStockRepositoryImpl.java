@@ -0,0 +1,30 @@
+package com.casejoin.productInventory.repository;
+
+import java.util.List;
+import java.util.SortedMap;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String ADJUST_QUANTITY = "UPDATE product SET quantity = COALESCE(quantity, 0) + ?, "
+            + "version = version + 1, updated_at = LOCALTIMESTAMP "
+            + "WHERE id = ? AND COALESCE(quantity, 0) + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductStockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] adjustQuantities(SortedMap<UUID, Integer> deltas) {
+        List<Object[]> arguments = deltas.entrySet().stream()
+                .map(delta -> new Object[] { delta.getValue(), delta.getKey(), delta.getValue() })
+                .toList();
+        return jdbcTemplate.batchUpdate(ADJUST_QUANTITY, arguments);
+    }
+}
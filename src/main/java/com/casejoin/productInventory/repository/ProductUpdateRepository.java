@@ -0,0 +1,44 @@
+package com.casejoin.productInventory.repository;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+
+import com.casejoin.productInventory.dto.ProductDto;
+
+/**
+ * Product updates applied in place, without loading the products.
+ */
+public interface ProductUpdateRepository {
+
+    /**
+     * Sets the given attributes of a product, increments its version and sets its
+     * update timestamp, in a single update statement. With an expected version,
+     * the product is only updated if it still has that version.
+     *
+     * @param id              the product id
+     * @param expectedVersion the version the product must have, or null to
+     *                        update it whatever its version
+     * @param values          the new value of each attribute to update, by
+     *                        attribute name; null values clear the attribute
+     * @return 1 if the product was updated, 0 if it does not exist or does not
+     *         have the expected version
+     */
+    int updateFields(UUID id, Long expectedVersion, Map<String, Object> values);
+
+    /**
+     * Sets the non-null fields of each given product DTO on the product with
+     * the same id, in one JDBC batch of update statements. A price without a
+     * currency is in the default currency. Every updated product
+     * gets its version incremented and its update timestamp set.
+     * <p>
+     * Products are updated in key order, so concurrent batches lock rows in the
+     * same order.
+     *
+     * @param patches the fields to change of each product id; the id of the DTOs
+     *                is ignored
+     * @return the number of rows updated for each product, in key order: 1 if
+     *         the product was updated, 0 if it does not exist
+     */
+    int[] patchAll(SortedMap<UUID, ProductDto> patches);
+}
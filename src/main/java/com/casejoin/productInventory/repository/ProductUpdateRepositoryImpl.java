@@ -0,0 +1,81 @@
+package com.casejoin.productInventory.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.model.Money;
+import com.casejoin.productInventory.model.Product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+@Transactional
+public class ProductUpdateRepositoryImpl implements ProductUpdateRepository {
+
+    private static final String PATCH = "UPDATE product SET name = COALESCE(?, name), "
+            + "description = COALESCE(?, description), brand = COALESCE(?, brand), "
+            + "category = COALESCE(?, category), quantity = COALESCE(?, quantity), "
+            + "price_minor = COALESCE(?, price_minor), currency = COALESCE(?, currency), "
+            + "version = version + 1, updated_at = LOCALTIMESTAMP WHERE id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductUpdateRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int updateFields(UUID id, Long expectedVersion, Map<String, Object> values) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = builder.createCriteriaUpdate(Product.class);
+        Root<Product> root = update.from(Product.class);
+
+        values.forEach((attribute, value) -> set(builder, update, root.get(attribute), value));
+        Path<Long> version = root.get("version");
+        update.set(version, builder.sum(version, 1L));
+        update.set(root.<LocalDateTime>get("updatedAt"), LocalDateTime.now());
+        update.where(expectedVersion != null
+                ? builder.and(builder.equal(root.get("id"), id), builder.equal(version, expectedVersion))
+                : builder.equal(root.get("id"), id));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int[] patchAll(SortedMap<UUID, ProductDto> patches) {
+        List<Object[]> arguments = patches.entrySet().stream()
+                .map(patch -> {
+                    ProductDto product = patch.getValue();
+                    return new Object[] { product.name(), product.description(), product.brand(),
+                            product.category() != null ? product.category().name() : null, product.quantity(),
+                            product.priceMinor(),
+                            product.price() != null ? Money.currencyOf(product.currency()) : null,
+                            patch.getKey() };
+                })
+                .toList();
+        return jdbcTemplate.batchUpdate(PATCH, arguments);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void set(CriteriaBuilder builder, CriteriaUpdate<Product> update, Path<T> path, Object value) {
+        if (value == null) {
+            update.set(path, builder.nullLiteral(path.getJavaType()));
+        } else {
+            update.set(path, (T) value);
+        }
+    }
+}
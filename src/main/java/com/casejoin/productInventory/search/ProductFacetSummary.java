@@ -0,0 +1,347 @@
+package com.casejoin.productInventory.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.casejoin.productInventory.dto.FacetCountDto;
+import com.casejoin.productInventory.dto.PriceBucketDto;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFacetsDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.enums.ChangeType;
+import com.casejoin.productInventory.event.ProductChangedEvent;
+import com.casejoin.productInventory.model.Money;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+
+/**
+ * In-memory summary of the catalog facets: the number of products of every
+ * category, brand and price bucket.
+ * <p>
+ * The summary is built from the database on startup and maintained from
+ * {@link ProductChangedEvent}s afterwards. It keeps the facet values of every
+ * product (shared between products with the same values), so updates and
+ * deletions can take the previous values out of the counts without reading
+ * the database. Facets of filters on category and brand only are answered
+ * from the summary, other filters need a grouped query.
+ * <p>
+ * The summary also counts the generation of every category, bumped by each
+ * committed change to one of its products, and of the whole catalog, so that
+ * results derived from a category can tell whether they are still current.
+ */
+@Component
+public class ProductFacetSummary {
+
+    private static final int REBUILD_FETCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final long[] priceBoundaries;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, FacetKey> products = new HashMap<>();
+    private final Map<FacetKey, FacetKey> keys = new HashMap<>();
+    private final Map<Category, Map<String, long[]>> counts = new HashMap<>();
+    /** Generation of each category by ordinal, then of the whole catalog. */
+    private final AtomicLongArray generations = new AtomicLongArray(Category.values().length + 1);
+    private volatile boolean ready;
+
+    public ProductFacetSummary(ProductRepository productRepository,
+            @Value("${product.facets.price-boundaries:0,50,100,250,500,1000}") BigDecimal[] priceBoundaries) {
+        this.productRepository = productRepository;
+        this.priceBoundaries = Arrays.stream(priceBoundaries)
+                .mapToLong(boundary -> Money.toMinor(boundary, Money.DEFAULT_CURRENCY, RoundingMode.CEILING))
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Rebuilds the summary from the database, streaming the products.
+     * <p>
+     * Changes are held back until the rebuild is done; in the meantime facets
+     * are computed by the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            products.clear();
+            keys.clear();
+            counts.clear();
+            try (Stream<ProductDto> all = productRepository.streamAllAsDto(null, Sort.unsorted(),
+                    REBUILD_FETCH_SIZE)) {
+                all.forEach(product -> put(product.id(), keyOf(product)));
+            }
+            // Changes held back by the rebuild are not told apart
+            for (int i = 0; i < generations.length(); i++) {
+                generations.incrementAndGet(i);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a committed product change to the summary.
+     * <p>
+     * Products updated in place are read again, since the event does not carry
+     * their new state. The generations of the categories of the product before
+     * and after the change are bumped.
+     *
+     * @param event the product change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ChangeType.STOCK_ADJUSTED) {
+            // The quantity is not a facet, only the generation changes
+            FacetKey key;
+            lock.readLock().lock();
+            try {
+                key = products.get(event.id());
+            } finally {
+                lock.readLock().unlock();
+            }
+            bump(key != null ? key.category() : null);
+            return;
+        }
+
+        ProductDto product = event.type() == ChangeType.DELETED ? null
+                : event.product() != null ? event.product() : load(event.id());
+
+        FacetKey previous;
+        lock.writeLock().lock();
+        try {
+            previous = remove(event.id());
+            if (product != null) {
+                put(product.id(), keyOf(product));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        bump(previous != null ? previous.category() : null);
+        if (product != null && (previous == null || previous.category() != product.category())) {
+            bump(product.category());
+        }
+    }
+
+    /**
+     * Returns the generation of a category, or of the whole catalog: it changes
+     * whenever a change to one of its products is committed.
+     * <p>
+     * Results read after taking the generation are current for as long as it
+     * does not change.
+     *
+     * @param category the category, or null for the whole catalog
+     * @return the generation, or -1 while the summary is being built, when
+     *         changes are not counted
+     */
+    public long generation(Category category) {
+        if (!ready) {
+            return -1;
+        }
+        return generations.get(category != null ? category.ordinal() : generations.length() - 1);
+    }
+
+    /**
+     * Checks whether the facets of the given filter can be answered from the
+     * summary: it must be built, and the filter must only be on category and
+     * brand.
+     *
+     * @param filter the product filter
+     * @return true if {@link #facets(ProductFilterDto)} can be used
+     */
+    public boolean supports(ProductFilterDto filter) {
+        return ready && (filter.name() == null || filter.name().isBlank()) && filter.minPrice() == null
+                && filter.maxPrice() == null;
+    }
+
+    /**
+     * Computes the facets of the products of the filter's category (or of every
+     * category) whose brand starts with the filter's brand, if any.
+     *
+     * @param filter the product filter, supported by the summary
+     * @return the facets
+     */
+    public ProductFacetsDto facets(ProductFilterDto filter) {
+        String brandFilter = filter.brand() == null || filter.brand().isBlank() ? null : filter.brand();
+        List<FacetCountDto> rows = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            counts.forEach((category, brands) -> {
+                if (filter.category() != null && filter.category() != category) {
+                    return;
+                }
+                brands.forEach((brand, buckets) -> {
+                    if (brandFilter != null && (brand == null || !brand.startsWith(brandFilter))) {
+                        return;
+                    }
+                    for (int bucket = 0; bucket < buckets.length; bucket++) {
+                        if (buckets[bucket] > 0) {
+                            rows.add(new FacetCountDto(category, brand,
+                                    bucket < priceBoundaries.length ? bucket : null, buckets[bucket]));
+                        }
+                    }
+                });
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return aggregate(rows);
+    }
+
+    /**
+     * Sums product counts by category, brand and price bucket into facets.
+     * <p>
+     * Brands are listed by decreasing count.
+     *
+     * @param rows the product counts
+     * @return the facets
+     */
+    public ProductFacetsDto aggregate(List<FacetCountDto> rows) {
+        long total = 0;
+        Map<Category, Long> categories = new EnumMap<>(Category.class);
+        Map<String, Long> brands = new HashMap<>();
+        long[] prices = new long[priceBoundaries.length];
+
+        for (FacetCountDto row : rows) {
+            total += row.count();
+            if (row.category() != null) {
+                categories.merge(row.category(), row.count(), Long::sum);
+            }
+            if (row.brand() != null) {
+                brands.merge(row.brand(), row.count(), Long::sum);
+            }
+            if (row.bucket() != null) {
+                prices[row.bucket()] += row.count();
+            }
+        }
+
+        Map<String, Long> sortedBrands = new LinkedHashMap<>();
+        brands.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEachOrdered(brand -> sortedBrands.put(brand.getKey(), brand.getValue()));
+
+        List<PriceBucketDto> buckets = new ArrayList<>(prices.length);
+        for (int i = 0; i < prices.length; i++) {
+            buckets.add(new PriceBucketDto(Money.toAmount(priceBoundaries[i], Money.DEFAULT_CURRENCY),
+                    i + 1 < priceBoundaries.length ? Money.toAmount(priceBoundaries[i + 1], Money.DEFAULT_CURRENCY)
+                            : null,
+                    prices[i]));
+        }
+
+        return new ProductFacetsDto(total, categories, sortedBrands, Collections.unmodifiableList(buckets));
+    }
+
+    /**
+     * Returns the ascending lower bounds of the price buckets, in minor units of
+     * the default currency.
+     *
+     * @return the price boundaries
+     */
+    public long[] getPriceBoundaries() {
+        return priceBoundaries.clone();
+    }
+
+    /**
+     * Returns the index of the price bucket of the given price; prices below the
+     * first boundary fall in the first bucket.
+     *
+     * @param priceMinor the price, in minor units of the default currency
+     * @return the bucket index
+     */
+    private int bucketOf(long priceMinor) {
+        int index = Arrays.binarySearch(priceBoundaries, priceMinor);
+        return index >= 0 ? index : Math.max(-index - 2, 0);
+    }
+
+    private FacetKey keyOf(ProductDto product) {
+        boolean bucketed = product.price() != null
+                && Money.DEFAULT_CURRENCY.equals(Money.currencyOf(product.currency()));
+        return new FacetKey(product.category(), product.brand(),
+                bucketed ? bucketOf(product.priceMinor()) : priceBoundaries.length);
+    }
+
+    private void put(UUID id, FacetKey key) {
+        FacetKey shared = keys.computeIfAbsent(key, k -> k);
+        products.put(id, shared);
+        counts.computeIfAbsent(key.category(), category -> new HashMap<>())
+                .computeIfAbsent(key.brand(), brand -> new long[priceBoundaries.length + 1])[key.bucket()]++;
+    }
+
+    private FacetKey remove(UUID id) {
+        FacetKey key = products.remove(id);
+        if (key == null) {
+            return null;
+        }
+
+        Map<String, long[]> brands = counts.get(key.category());
+        long[] buckets = brands.get(key.brand());
+        buckets[key.bucket()]--;
+        if (Arrays.stream(buckets).allMatch(count -> count == 0)) {
+            brands.remove(key.brand());
+            keys.remove(key);
+        }
+        return key;
+    }
+
+    /**
+     * Bumps the generation of a category and of the whole catalog.
+     *
+     * @param category the category, or null if unknown, which bumps every
+     *                 category
+     */
+    private void bump(Category category) {
+        if (category != null) {
+            generations.incrementAndGet(category.ordinal());
+        } else {
+            for (int i = 0; i < generations.length() - 1; i++) {
+                generations.incrementAndGet(i);
+            }
+        }
+        generations.incrementAndGet(generations.length() - 1);
+    }
+
+    /**
+     * Reads the current state of a product updated in place.
+     *
+     * @param id the product id
+     * @return the product, or null if it no longer exists
+     */
+    private ProductDto load(UUID id) {
+        Specification<Product> byId = (root, query, builder) -> builder.equal(root.get("id"), id);
+        return productRepository.findAllAsDto(byId, Pageable.unpaged()).stream().findFirst().orElse(null);
+    }
+
+    /**
+     * Facet values of a product; the bucket is the price bucket index, or the
+     * number of boundaries if the product has no price in the default currency.
+     */
+    private record FacetKey(Category category, String brand, int bucket) {
+    }
+}
@@ -0,0 +1,310 @@
+package com.casejoin.productInventory.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.ChangeType;
+import com.casejoin.productInventory.event.ProductChangedEvent;
+import com.casejoin.productInventory.model.Money;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+
+/**
+ * Embedded Lucene inverted index over the product name, brand and
+ * description.
+ * <p>
+ * The database remains the source of truth: the index is rebuilt from it on
+ * startup and kept in sync afterwards from {@link ProductChangedEvent}s. Text
+ * is indexed as lower-cased, accent-folded edge n-grams, so a search term
+ * matches any word starting with it, and results are ranked by BM25 with name
+ * matches weighted above brand and description matches.
+ */
+@Component
+public class ProductSearchIndex implements DisposableBean {
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String BRAND = "brand";
+    private static final String DESCRIPTION = "description";
+    private static final String CATEGORY = "category";
+    private static final String PRICE = "price";
+    private static final String CURRENCY = "currency";
+
+    private static final Map<String, Float> TEXT_FIELD_BOOSTS = Map.of(NAME, 3f, BRAND, 2f, DESCRIPTION, 1f);
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final Analyzer queryAnalyzer = new ProductAnalyzer(false);
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    public ProductSearchIndex(ProductRepository productRepository,
+            @Value("${product.search.index-path:}") String indexPath) throws IOException {
+        this.productRepository = productRepository;
+        this.directory = indexPath.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexPath));
+        this.writer = new IndexWriter(directory,
+                new IndexWriterConfig(new ProductAnalyzer(true)).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * Rebuilds the index from the database, reading the products in batches
+     * ordered by id.
+     *
+     * @throws IOException if the index cannot be written
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() throws IOException {
+        writer.deleteAll();
+
+        List<ProductDto> batch;
+        UUID lastId = null;
+        do {
+            UUID after = lastId;
+            Specification<Product> specification = after == null ? null
+                    : (root, query, builder) -> builder.greaterThan(root.get("id"), after);
+            batch = productRepository.findAllAsDto(specification,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id")));
+
+            for (ProductDto product : batch) {
+                writer.updateDocument(new Term(ID, product.id().toString()), toDocument(product));
+            }
+            lastId = batch.isEmpty() ? null : batch.get(batch.size() - 1).id();
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    /**
+     * Applies a committed product change to the index.
+     * <p>
+     * Changes become visible to searches on the next search, so bursts of writes
+     * (e.g. bulk imports) only reopen the index once.
+     *
+     * @param event the product change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        try {
+            if (event.type() == ChangeType.STOCK_ADJUSTED) {
+                // Stock adjustments do not touch indexed fields
+                return;
+            }
+
+            Term id = new Term(ID, event.id().toString());
+            ProductDto product = event.type() == ChangeType.DELETED ? null
+                    : event.product() != null ? event.product() : load(event.id());
+            if (product == null) {
+                writer.deleteDocuments(id);
+            } else {
+                writer.updateDocument(id, toDocument(product));
+            }
+            stale.set(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Searches the products matching every term of the given text, ranked by
+     * relevance.
+     * <p>
+     * The category and price filters of the product filter are applied; its
+     * name, brand and page fields are ignored.
+     *
+     * @param text   the search text
+     * @param filter the category and price filters
+     * @param offset the number of ranked results to skip
+     * @param limit  the maximum number of results to return
+     * @return the ids of the matching products, best match first
+     */
+    public List<UUID> search(String text, ProductFilterDto filter, int offset, int limit) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            TEXT_FIELD_BOOSTS.forEach((field, boost) -> anyField
+                    .add(new BoostQuery(new TermQuery(new Term(field, term)), boost), BooleanClause.Occur.SHOULD));
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+
+        if (filter.category() != null) {
+            query.add(new TermQuery(new Term(CATEGORY, filter.category().name())), BooleanClause.Occur.FILTER);
+        }
+
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            query.add(new TermQuery(new Term(CURRENCY, Money.DEFAULT_CURRENCY)), BooleanClause.Occur.FILTER);
+            query.add(LongPoint.newRangeQuery(PRICE,
+                    filter.minPrice() != null ? filter.minPrice() : Long.MIN_VALUE,
+                    filter.maxPrice() != null ? filter.maxPrice() : Long.MAX_VALUE),
+                    BooleanClause.Occur.FILTER);
+        }
+
+        try {
+            if (stale.getAndSet(false)) {
+                searcherManager.maybeRefreshBlocking();
+            }
+
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query.build(), offset + limit);
+                StoredFields storedFields = searcher.storedFields();
+
+                List<UUID> ids = new ArrayList<>(limit);
+                ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+                for (int i = offset; i < scoreDocs.length; i++) {
+                    ids.add(UUID.fromString(storedFields.document(scoreDocs[i].doc, Set.of(ID)).get(ID)));
+                }
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Reads the current state of a product updated in place.
+     *
+     * @param id the product id
+     * @return the product, or null if it no longer exists
+     */
+    private ProductDto load(UUID id) {
+        Specification<Product> byId = (root, query, builder) -> builder.equal(root.get("id"), id);
+        return productRepository.findAllAsDto(byId, Pageable.unpaged()).stream().findFirst().orElse(null);
+    }
+
+    private Document toDocument(ProductDto product) {
+        Document document = new Document();
+        document.add(new StringField(ID, product.id().toString(), Field.Store.YES));
+        addText(document, NAME, product.name());
+        addText(document, BRAND, product.brand());
+        addText(document, DESCRIPTION, product.description());
+        if (product.category() != null) {
+            document.add(new StringField(CATEGORY, product.category().name(), Field.Store.NO));
+        }
+        if (product.price() != null) {
+            document.add(new LongPoint(PRICE, product.priceMinor()));
+            document.add(new StringField(CURRENCY, Money.currencyOf(product.currency()), Field.Store.NO));
+        }
+        return document;
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    /**
+     * Splits the search text into terms, normalized like indexed text but
+     * without the n-grams.
+     *
+     * @param text the search text
+     * @return the distinct search terms
+     */
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = queryAnalyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                if (!terms.contains(term.toString())) {
+                    terms.add(term.toString());
+                }
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    /**
+     * Standard tokenization, lower-casing and accent folding, optionally followed
+     * by edge n-grams (from 2 to 20 characters, keeping the whole word) for
+     * indexing.
+     */
+    private static final class ProductAnalyzer extends Analyzer {
+
+        private final boolean edgeNGrams;
+
+        private ProductAnalyzer(boolean edgeNGrams) {
+            this.edgeNGrams = edgeNGrams;
+        }
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            if (edgeNGrams) {
+                stream = new EdgeNGramTokenFilter(stream, 2, 20, true);
+            }
+            return new TokenStreamComponents(tokenizer, stream);
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package com.casejoin.productInventory.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.BatchIterator;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.enums.ChangeType;
+import com.casejoin.productInventory.event.ProductChangedEvent;
+import com.casejoin.productInventory.model.Money;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+
+/**
+ * Columnar in-memory snapshot of the catalog, answering product list filters
+ * without the database.
+ * <p>
+ * Every product is a row of primitive columns (price in minor units of the
+ * default currency, quantity, category ordinal, dictionary-encoded brand) plus
+ * the columns only needed to build its DTO. Rows are indexed by RoaringBitmaps
+ * of the live rows and of the rows of each category and brand. A filter
+ * intersects the bitmaps of its category and of the brands starting with its
+ * brand text, then scans the remaining candidates in batches, comparing the
+ * price column with the price range and testing the name. The scan stops as
+ * soon as the requested page is complete, and only the products of the page
+ * are built.
+ * <p>
+ * Rows are kept in creation order, so pages are ordered by creation date and
+ * id, like windows of {@code getProductsAfter}. Text filters match literally,
+ * including {@code %} and {@code _}. Deleted rows leave a gap until more than
+ * half of the rows are gaps, at which point the columns are compacted.
+ * <p>
+ * The snapshot is only built when {@code product.snapshot.enabled} is set; it
+ * is built from the database on startup and maintained from
+ * {@link ProductChangedEvent}s, before the generations of the
+ * {@link ProductFacetSummary} are bumped, so a page read after a bump always
+ * includes the change.
+ */
+@Component
+public class ProductSnapshot {
+
+    private static final int REBUILD_FETCH_SIZE = 1000;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SCAN_BATCH_SIZE = 256;
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    /** Default currency price of the rows without a price in that currency. */
+    private static final long NO_PRICE = Long.MIN_VALUE;
+
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Columns columns = new Columns(0);
+    private volatile boolean ready;
+
+    public ProductSnapshot(ProductRepository productRepository,
+            @Value("${product.snapshot.enabled:false}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Rebuilds the snapshot from the database, streaming the products in
+     * creation order.
+     * <p>
+     * Changes are held back until the rebuild is done; in the meantime lists
+     * are read from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            Columns rebuilt = new Columns(INITIAL_CAPACITY);
+            try (Stream<ProductDto> all = productRepository.streamAllAsDto(null, Sort.by("createdAt", "id"),
+                    REBUILD_FETCH_SIZE)) {
+                all.forEach(rebuilt::put);
+            }
+            columns = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Collects a product change, to be applied once its transaction commits.
+     * <p>
+     * The changes of a transaction are applied together: the products created or
+     * updated by it are read again with one query per {@value #LOAD_CHUNK_SIZE}
+     * ids, since the state carried by the events is taken before the flush,
+     * without its generated timestamps and version. The changes are applied
+     * before the other listeners run after commit, see the class comment. A
+     * change published outside a transaction is applied at once.
+     *
+     * @param event the product change
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(Map.of(event.id(), event.type()));
+            return;
+        }
+
+        // Synchronizations, unlike bound resources, are suspended with their transaction
+        PendingChanges pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingChanges.class::isInstance).map(PendingChanges.class::cast).findFirst()
+                .orElse(null);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.put(event.id(), event.type());
+    }
+
+    /**
+     * Applies committed changes to the snapshot, in the order they were made.
+     *
+     * @param changes the last change of each product
+     */
+    private void apply(Map<UUID, ChangeType> changes) {
+        List<UUID> changed = changes.entrySet().stream().filter(change -> change.getValue() != ChangeType.DELETED)
+                .map(Map.Entry::getKey).toList();
+        Map<UUID, ProductDto> products = load(changed);
+
+        lock.writeLock().lock();
+        try {
+            for (UUID id : changes.keySet()) {
+                ProductDto product = products.get(id);
+                if (product != null) {
+                    columns.put(product);
+                } else {
+                    columns.remove(id);
+                }
+            }
+            if (columns.gaps() > columns.live.getCardinality()) {
+                columns = columns.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether lists can be read from the snapshot: it must be enabled and
+     * built.
+     *
+     * @return true if {@link #find(ProductFilterDto)} can be used
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the number of products in the snapshot.
+     *
+     * @return the number of products
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.live.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a page of the products matching a filter, with the same semantics
+     * as the database filter: the name contains the filter text, the brand
+     * starts with it, and price bounds only match products priced in the
+     * default currency.
+     *
+     * @param filter the product filter, normalized (page and page size set)
+     * @return the products of the page, in creation order, possibly empty
+     */
+    public List<ProductDto> find(ProductFilterDto filter) {
+        long skip = (long) (filter.page() - 1) * filter.pageSize();
+        int limit = filter.pageSize();
+        String name = filter.name();
+        boolean priceBounded = filter.minPrice() != null || filter.maxPrice() != null;
+        // Bounds exclude the rows without a price in the default currency, which hold NO_PRICE
+        long minPrice = !priceBounded ? NO_PRICE
+                : filter.minPrice() != null ? Math.max(filter.minPrice(), NO_PRICE + 1) : NO_PRICE + 1;
+        long maxPrice = filter.maxPrice() != null ? filter.maxPrice() : Long.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            RoaringBitmap candidates = c.candidates(filter);
+            if (candidates.getCardinality() <= skip) {
+                return List.of();
+            }
+
+            List<ProductDto> page = new ArrayList<>(Math.min(limit, candidates.getCardinality()));
+            int[] batch = new int[SCAN_BATCH_SIZE];
+            BatchIterator rows = candidates.getBatchIterator();
+            while (rows.hasNext()) {
+                int count = rows.nextBatch(batch);
+                for (int i = 0; i < count; i++) {
+                    int row = batch[i];
+                    long price = c.defaultPrices[row];
+                    if (price < minPrice || price > maxPrice
+                            || name != null && (c.names[row] == null || !c.names[row].contains(name))) {
+                        continue;
+                    }
+                    if (skip > 0) {
+                        skip--;
+                        continue;
+                    }
+                    page.add(c.toDto(row));
+                    if (page.size() == limit) {
+                        return page;
+                    }
+                }
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the current state of changed products.
+     *
+     * @param ids the product ids
+     * @return the products by id, without the ones that no longer exist
+     */
+    private Map<UUID, ProductDto> load(List<UUID> ids) {
+        Map<UUID, ProductDto> products = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + LOAD_CHUNK_SIZE, ids.size()));
+            Specification<Product> byIds = (root, query, builder) -> root.get("id").in(chunk);
+            productRepository.findAllAsDto(byIds, Pageable.unpaged())
+                    .forEach(product -> products.put(product.id(), product));
+        }
+        return products;
+    }
+
+    /**
+     * The changes of a transaction, applied to the snapshot after it commits.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        /** The last change of each product, in the order of the first ones. */
+        private final Map<UUID, ChangeType> changes = new LinkedHashMap<>();
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void afterCommit() {
+            apply(changes);
+        }
+    }
+
+    /**
+     * The columns and bitmaps of the snapshot. Rows are appended and never
+     * moved, except by {@link #compact()}.
+     */
+    private static final class Columns {
+
+        private int size;
+        private long[] idHigh;
+        private long[] idLow;
+        private long[] prices;
+        /** Price in the default currency, or {@link #NO_PRICE}, scanned by price bounds. */
+        private long[] defaultPrices;
+        private int[] quantities;
+        private byte[] categories;
+        private int[] brands;
+        private String[] names;
+        private String[] descriptions;
+        private String[] currencies;
+        private LocalDateTime[] createdAts;
+        private LocalDateTime[] updatedAts;
+        private Long[] versions;
+
+        private final Map<UUID, Integer> rows = new HashMap<>();
+        private final List<String> brandValues = new ArrayList<>();
+        private final Map<String, Integer> brandIds = new HashMap<>();
+        private final List<RoaringBitmap> brandRows = new ArrayList<>();
+        private final Map<String, String> currencyValues = new HashMap<>();
+
+        private final RoaringBitmap live = new RoaringBitmap();
+        private final RoaringBitmap[] categoryRows = new RoaringBitmap[CATEGORIES.length];
+        /** Rows with a price, in any currency. */
+        private final RoaringBitmap priced = new RoaringBitmap();
+        private final RoaringBitmap quantified = new RoaringBitmap();
+
+        private Columns(int capacity) {
+            idHigh = new long[capacity];
+            idLow = new long[capacity];
+            prices = new long[capacity];
+            defaultPrices = new long[capacity];
+            quantities = new int[capacity];
+            categories = new byte[capacity];
+            brands = new int[capacity];
+            names = new String[capacity];
+            descriptions = new String[capacity];
+            currencies = new String[capacity];
+            createdAts = new LocalDateTime[capacity];
+            updatedAts = new LocalDateTime[capacity];
+            versions = new Long[capacity];
+            for (int i = 0; i < categoryRows.length; i++) {
+                categoryRows[i] = new RoaringBitmap();
+            }
+        }
+
+        /**
+         * Intersects the bitmaps of the filter's category and brand. Shared
+         * bitmaps are never modified.
+         */
+        private RoaringBitmap candidates(ProductFilterDto filter) {
+            RoaringBitmap candidates = filter.category() != null ? categoryRows[filter.category().ordinal()] : live;
+            if (filter.brand() != null) {
+                List<RoaringBitmap> matching = new ArrayList<>();
+                for (int brand = 0; brand < brandValues.size(); brand++) {
+                    if (brandValues.get(brand).startsWith(filter.brand()) && !brandRows.get(brand).isEmpty()) {
+                        matching.add(brandRows.get(brand));
+                    }
+                }
+                if (matching.isEmpty()) {
+                    return new RoaringBitmap();
+                }
+                candidates = RoaringBitmap.and(candidates,
+                        matching.size() == 1 ? matching.get(0) : FastAggregation.or(matching.iterator()));
+            }
+            return candidates;
+        }
+
+        /**
+         * Adds a product, or overwrites its row if it is already there.
+         */
+        private void put(ProductDto product) {
+            Integer existing = rows.get(product.id());
+            int row;
+            if (existing != null) {
+                row = existing;
+                unindex(row);
+            } else {
+                if (size == prices.length) {
+                    grow();
+                }
+                row = size++;
+                rows.put(product.id(), row);
+                idHigh[row] = product.id().getMostSignificantBits();
+                idLow[row] = product.id().getLeastSignificantBits();
+                createdAts[row] = product.createdAt();
+            }
+
+            names[row] = product.name();
+            descriptions[row] = product.description();
+            currencies[row] = product.currency() != null
+                    ? currencyValues.computeIfAbsent(product.currency(), currency -> currency)
+                    : null;
+            updatedAts[row] = product.updatedAt();
+            versions[row] = product.version();
+
+            live.add(row);
+            categories[row] = product.category() != null ? (byte) product.category().ordinal() : -1;
+            if (product.category() != null) {
+                categoryRows[product.category().ordinal()].add(row);
+            }
+            brands[row] = product.brand() != null ? brandId(product.brand()) : -1;
+            if (product.brand() != null) {
+                brandRows.get(brands[row]).add(row);
+            }
+            quantities[row] = product.quantity() != null ? product.quantity() : 0;
+            if (product.quantity() != null) {
+                quantified.add(row);
+            }
+            prices[row] = product.price() != null ? product.priceMinor() : 0;
+            defaultPrices[row] = product.price() != null && Money.DEFAULT_CURRENCY.equals(product.currency())
+                    ? prices[row]
+                    : NO_PRICE;
+            if (product.price() != null) {
+                priced.add(row);
+            }
+        }
+
+        private void remove(UUID id) {
+            Integer row = rows.remove(id);
+            if (row != null) {
+                unindex(row);
+                names[row] = null;
+                descriptions[row] = null;
+                currencies[row] = null;
+                createdAts[row] = null;
+                updatedAts[row] = null;
+                versions[row] = null;
+            }
+        }
+
+        /**
+         * Takes a row out of every bitmap.
+         */
+        private void unindex(int row) {
+            live.remove(row);
+            if (categories[row] >= 0) {
+                categoryRows[categories[row]].remove(row);
+            }
+            if (brands[row] >= 0) {
+                brandRows.get(brands[row]).remove(row);
+            }
+            priced.remove(row);
+            quantified.remove(row);
+        }
+
+        private int brandId(String brand) {
+            return brandIds.computeIfAbsent(brand, value -> {
+                brandValues.add(value);
+                brandRows.add(new RoaringBitmap());
+                return brandValues.size() - 1;
+            });
+        }
+
+        private int gaps() {
+            return size - live.getCardinality();
+        }
+
+        /**
+         * Copies the live rows, in order, into new columns without gaps.
+         */
+        private Columns compact() {
+            Columns compacted = new Columns(Math.max(live.getCardinality(), INITIAL_CAPACITY));
+            live.forEach((int row) -> compacted.put(toDto(row)));
+            return compacted;
+        }
+
+        private void grow() {
+            int capacity = Math.max(prices.length * 2, INITIAL_CAPACITY);
+            idHigh = Arrays.copyOf(idHigh, capacity);
+            idLow = Arrays.copyOf(idLow, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            defaultPrices = Arrays.copyOf(defaultPrices, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            brands = Arrays.copyOf(brands, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            currencies = Arrays.copyOf(currencies, capacity);
+            createdAts = Arrays.copyOf(createdAts, capacity);
+            updatedAts = Arrays.copyOf(updatedAts, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+
+        private ProductDto toDto(int row) {
+            return new ProductDto(
+                    new UUID(idHigh[row], idLow[row]),
+                    names[row],
+                    descriptions[row],
+                    brands[row] >= 0 ? brandValues.get(brands[row]) : null,
+                    categories[row] >= 0 ? CATEGORIES[categories[row]] : null,
+                    quantified.contains(row) ? quantities[row] : null,
+                    priced.contains(row) ? Money.toAmount(prices[row], currencies[row]) : null,
+                    currencies[row],
+                    createdAts[row],
+                    updatedAts[row],
+                    versions[row]);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.casejoin.productInventory.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
+import com.casejoin.productInventory.model.Product;
+
+/**
+ * Position of a product in the keyset ordering used by cursor pagination.
+ * <p>
+ * Products are ordered by creation date and then by id, which is unique, so
+ * the position is stable while products are created or deleted. Cursors are
+ * exchanged with clients as opaque URL-safe tokens.
+ *
+ * @param createdAt the creation date of the last product of a page
+ * @param id        the id of the last product of a page
+ */
+record ProductCursor(LocalDateTime createdAt, UUID id) {
+
+    static final Sort SORT = Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("id"));
+
+    private static final char SEPARATOR = '|';
+
+    static ProductCursor of(ProductDto product) {
+        return new ProductCursor(product.createdAt(), product.id());
+    }
+
+    /**
+     * Decodes a cursor token.
+     *
+     * @param token the token returned by {@link #encode()}
+     * @return the decoded cursor
+     * @throws InvalidArgumentException if the token is not a valid cursor
+     */
+    static ProductCursor decode(String token) throws InvalidArgumentException {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new ProductCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    UUID.fromString(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidArgumentException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt.toString() + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a specification matching the products placed after this cursor
+     * in the {@link #SORT} order.
+     *
+     * @return a Specification for the products after this cursor
+     */
+    Specification<Product> toSpecification() {
+        return (root, query, builder) -> builder.or(
+                builder.greaterThan(root.get("createdAt"), createdAt),
+                builder.and(builder.equal(root.get("createdAt"), createdAt),
+                        builder.greaterThan(root.get("id"), id)));
+    }
+}
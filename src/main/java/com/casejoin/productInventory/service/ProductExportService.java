@@ -0,0 +1,132 @@
+package com.casejoin.productInventory.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.ExportFormat;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+@Service
+public class ProductExportService {
+
+    private static final String CSV_HEADER = "id,name,description,brand,category,quantity,price,currency,createdAt,updatedAt";
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public ProductExportService(ProductService productService, ProductRepository productRepository,
+            ObjectMapper objectMapper, @Value("${product.export.fetch-size:1000}") int fetchSize) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = Math.max(fetchSize, 1);
+    }
+
+    /**
+     * Writes every product matching the provided filter criteria to the given
+     * stream.
+     * <p>
+     * Products are read through a forward-only cursor as DTOs, so no entity is
+     * loaded, and each one is written as soon as it is read: memory use does not
+     * depend on the number of exported products. They are written in storage
+     * order, which spares the database a sort or an index-ordered scan of the
+     * whole catalog. The page fields of the filter are ignored.
+     *
+     * @param productFilterDto the product filter criteria
+     * @param format           the output format, one JSON object per line or CSV
+     *                         with a header row
+     * @param out              the stream to write to, flushed but not closed
+     * @return the number of exported products
+     * @throws IOException if the stream cannot be written
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(ProductFilterDto productFilterDto, ExportFormat format, OutputStream out)
+            throws IOException {
+        try (Stream<ProductDto> products = productRepository.streamAllAsDto(
+                productService.filterSpecification(productFilterDto), Sort.unsorted(), fetchSize)) {
+            return switch (format) {
+                case NDJSON -> writeNdjson(products.iterator(), out);
+                case CSV -> writeCsv(products.iterator(), out);
+            };
+        }
+    }
+
+    private long writeNdjson(Iterator<ProductDto> products, OutputStream out) throws IOException {
+        long count = 0;
+        SequenceWriter writer = objectMapper.writerFor(ProductDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out);
+        while (products.hasNext()) {
+            writer.write(products.next());
+            count++;
+        }
+        if (count > 0) {
+            out.write('\n');
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<ProductDto> products, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (products.hasNext()) {
+            ProductDto product = products.next();
+            writer.write(String.valueOf(product.id()));
+            writeCsvField(writer, product.name());
+            writeCsvField(writer, product.description());
+            writeCsvField(writer, product.brand());
+            writeCsvField(writer, product.category());
+            writeCsvField(writer, product.quantity());
+            writeCsvField(writer, product.price() != null ? product.price().toPlainString() : null);
+            writeCsvField(writer, product.currency());
+            writeCsvField(writer, product.createdAt());
+            writeCsvField(writer, product.updatedAt());
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Writes a comma followed by the value, quoted if it contains a comma, a quote
+     * or a line break. Null values are written as empty fields.
+     */
+    private void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+        } else {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
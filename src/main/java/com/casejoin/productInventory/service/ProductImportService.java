@@ -0,0 +1,152 @@
+package com.casejoin.productInventory.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.casejoin.productInventory.dto.BulkImportErrorDto;
+import com.casejoin.productInventory.dto.BulkImportResultDto;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.ChangeType;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
+import com.casejoin.productInventory.exception.RequiredArgumentsMissing;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+
+@Service
+public class ProductImportService {
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(ProductService productService, ProductRepository productRepository,
+            TransactionTemplate transactionTemplate, EntityManager entityManager,
+            @Value("${product.import.chunk-size:1000}") int chunkSize,
+            @Value("${product.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.maxReportedErrors = Math.max(maxReportedErrors, 0);
+    }
+
+    /**
+     * Imports the products provided by the given iterator.
+     * <p>
+     * Rows are validated with the same rules as
+     * {@link ProductService#createProduct(ProductDto)} and written in chunks, with
+     * one transaction (and one JDBC batch flush) per chunk. Only the current chunk
+     * is held in memory, so the iterator may stream an arbitrarily large feed:
+     * written products are detached after each chunk, as the persistence context
+     * may be the one of the whole request (open-in-view).
+     * <p>
+     * Invalid rows are skipped and reported. If a chunk fails to be written, every
+     * row of that chunk is reported as failed and the import continues with the
+     * next chunk.
+     *
+     * @param products the products to import, in feed order
+     * @return the import counts and the per-row error report (rows are 1-indexed)
+     */
+    public BulkImportResultDto importProducts(Iterator<ProductDto> products) {
+        ImportReport report = new ImportReport();
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        long[] chunkRows = new long[chunkSize];
+        long row = 0;
+
+        while (hasNext(products, row, report)) {
+            row++;
+            try {
+                Product product = productService.newProduct(products.next());
+                chunkRows[chunk.size()] = row;
+                chunk.add(product);
+            } catch (RequiredArgumentsMissing | InvalidArgumentException e) {
+                report.error(row, e.getMessage());
+            } catch (RuntimeException e) {
+                // The row could not be read, the iterator skips to the next one
+                report.error(row, "Invalid row: " + e.getMessage());
+            }
+
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, chunkRows, report);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, chunkRows, report);
+        }
+
+        return new BulkImportResultDto(report.imported + report.failed, report.imported, report.failed,
+                report.errors);
+    }
+
+    /**
+     * Checks whether the feed has more rows.
+     * <p>
+     * A feed that cannot be read any further (e.g. malformed JSON) is reported as
+     * an error on the row following the last one read, and ends the import.
+     *
+     * @param products the products to import
+     * @param row      the last row read
+     * @param report   the report to update
+     * @return true if there is another row to import, false otherwise
+     */
+    private boolean hasNext(Iterator<ProductDto> products, long row, ImportReport report) {
+        try {
+            return products.hasNext();
+        } catch (RuntimeException e) {
+            report.error(row + 1, "Malformed input: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Persists a chunk of products in a single transaction.
+     *
+     * @param chunk  the products to persist
+     * @param rows   the feed row of each product of the chunk
+     * @param report the report to update
+     */
+    private void writeChunk(List<Product> chunk, long[] rows, ImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.saveAll(chunk);
+                productRepository.flush();
+                chunk.forEach(product -> productService.publishChange(ChangeType.CREATED, product));
+                // Keeps the persistence context, and the dirty checking of each flush, to one chunk
+                entityManager.clear();
+            });
+            report.imported += chunk.size();
+        } catch (RuntimeException e) {
+            String message = "Chunk of rows " + rows[0] + "-" + rows[chunk.size() - 1] + " was rolled back: "
+                    + e.getMessage();
+            for (int i = 0; i < chunk.size(); i++) {
+                report.error(rows[i], message);
+            }
+        }
+    }
+
+    private final class ImportReport {
+        private long imported;
+        private long failed;
+        private final List<BulkImportErrorDto> errors = new ArrayList<>();
+
+        private void error(long row, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new BulkImportErrorDto(row, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.casejoin.productInventory.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.casejoin.productInventory.datasource.PrimaryReads;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.search.ProductFacetSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache of product list pages, keyed by the normalized filter.
+ * <p>
+ * Every entry records the generation of its category (or of the whole catalog,
+ * for filters without a category) taken from the {@link ProductFacetSummary}
+ * before its page was read. A committed change to a product bumps the
+ * generation of its categories, so the entries of those categories stop being
+ * served, while the pages of other categories stay cached. The pages to cache
+ * are read from the primary (see {@link PrimaryReads}), since a page read from
+ * a lagging replica would be served as current to every client. Entries also
+ * expire after {@code product.list-cache.ttl} and are evicted once their
+ * estimated size exceeds {@code product.list-cache.max-memory}.
+ * <p>
+ * Writes that bypass the service, such as SQL run directly against the
+ * database, are only seen once the entries expire.
+ */
+@Component
+public class ProductListCache {
+
+    /** Rough size of a cached product without its strings, in bytes. */
+    private static final int PRODUCT_BYTES = 320;
+
+    /** Rough size of a cache entry without its products, in bytes. */
+    private static final int ENTRY_BYTES = 200;
+
+    private final ProductFacetSummary productFacetSummary;
+    private final boolean enabled;
+    private final Cache<ProductFilterDto, Entry> cache;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stale;
+
+    public ProductListCache(ProductFacetSummary productFacetSummary, MeterRegistry meterRegistry,
+            @Value("${product.list-cache.enabled:true}") boolean enabled,
+            @Value("${product.list-cache.ttl:30s}") Duration ttl,
+            @Value("${product.list-cache.max-memory:32MB}") DataSize maxMemory) {
+        this.productFacetSummary = productFacetSummary;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxMemory.toBytes())
+                .weigher(ProductListCache::weigh)
+                .build();
+
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.stale = lookups(meterRegistry, "stale");
+        Gauge.builder("product.list-cache.size", this, ProductListCache::getEstimatedSize)
+                .description("Estimated size of the cached product list pages")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the page of the given filter, from the cache if it is current,
+     * otherwise from the loader, caching its result.
+     *
+     * @param filter the product filter
+     * @param loader reads the page of a normalized filter
+     * @return the products of the page, possibly empty
+     */
+    public List<ProductDto> get(ProductFilterDto filter, Function<ProductFilterDto, List<ProductDto>> loader) {
+        ProductFilterDto key = normalize(filter);
+        long generation = productFacetSummary.generation(key.category());
+        if (!enabled || generation < 0) {
+            return loader.apply(key);
+        }
+
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.generation() == generation) {
+            hits.increment();
+            return entry.products();
+        }
+        (entry != null ? stale : misses).increment();
+
+        List<ProductDto> products = List.copyOf(PrimaryReads.call(() -> loader.apply(key)));
+        // A concurrent reader may have cached a more recent generation meanwhile
+        cache.asMap().merge(key, new Entry(generation, products),
+                (cached, loaded) -> cached.generation() > loaded.generation() ? cached : loaded);
+        return products;
+    }
+
+    /**
+     * Drops every cached page.
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the estimated size of the cached pages.
+     *
+     * @return the size, in bytes
+     */
+    public long getEstimatedSize() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    /**
+     * Normalizes a filter, so that equivalent filters share a cache entry:
+     * blank strings become null, and the page and page size get their
+     * defaults. Price bounds are already in minor units, so every notation of
+     * the same bounds (e.g. {@code 1}, {@code 1.00} and {@code 1,00}) is the
+     * same.
+     *
+     * @param filter the product filter, or null
+     * @return the normalized filter
+     */
+    static ProductFilterDto normalize(ProductFilterDto filter) {
+        if (filter == null) {
+            filter = new ProductFilterDto();
+        }
+        return new ProductFilterDto(blankToNull(filter.name()), filter.category(), blankToNull(filter.brand()),
+                filter.minPrice(), filter.maxPrice(),
+                filter.page() != null && filter.page() > 1 ? filter.page() : 1,
+                filter.pageSize() != null && filter.pageSize() > 0 ? filter.pageSize()
+                        : ProductService.DEFAULT_PAGE_SIZE);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static int weigh(ProductFilterDto key, Entry entry) {
+        long bytes = ENTRY_BYTES;
+        for (ProductDto product : entry.products()) {
+            bytes += PRODUCT_BYTES + 2L * (length(product.name()) + length(product.description())
+                    + length(product.brand()));
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("product.list-cache.lookups")
+                .description("Product list cache lookups, by result: hit, miss, or stale generation")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A cached page and the generation it was read at.
+     */
+    private record Entry(long generation, List<ProductDto> products) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.casejoin.productInventory.service;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.dto.ProductReportDto;
+import com.casejoin.productInventory.dto.ProductStatsDto;
+import com.casejoin.productInventory.enums.ReportGroup;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+
+/**
+ * Catalog-wide reports, computed in parallel over ranges of the product ids.
+ * <p>
+ * The id space is split into {@code product.report.workers} times
+ * {@code product.report.ranges-per-worker} ranges, scanned concurrently by a
+ * pool of {@code product.report.workers} threads. Each range is streamed in a
+ * read-only transaction of its own, so on its own connection, possibly to a
+ * replica, and reduced into per-group accumulators; the accumulators of the
+ * ranges are merged as the ranges complete. Ids are random UUIDs, so ranges
+ * hold about as many products each; having more ranges than workers evens out
+ * the rest.
+ * <p>
+ * Every worker holds a connection while it scans, so the number of workers
+ * should stay well below the size of the connection pool.
+ */
+@Service
+public class ProductReportService implements DisposableBean {
+
+    private static final BigInteger KEY_SPACE = BigInteger.ONE.shiftLeft(64);
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final int ranges;
+    private final int fetchSize;
+
+    public ProductReportService(ProductService productService, ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${product.report.workers:4}") int workers,
+            @Value("${product.report.ranges-per-worker:4}") int rangesPerWorker,
+            @Value("${product.report.fetch-size:1000}") int fetchSize) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = Executors.newFixedThreadPool(Math.max(workers, 1),
+                Thread.ofPlatform().name("product-report-", 0).daemon().factory());
+        this.ranges = Math.max(workers, 1) * Math.max(rangesPerWorker, 1);
+        this.fetchSize = Math.max(fetchSize, 1);
+    }
+
+    /**
+     * Computes the statistics of the products matching the provided filter
+     * criteria, in total and by category or brand: count, stock, low-stock
+     * count, stock value, and minimum, maximum and percentiles of the price.
+     * The page fields of the filter are ignored.
+     *
+     * @param productFilterDto  the product filter criteria
+     * @param groupBy           what to group the products by
+     * @param lowStockThreshold the highest stock counted as low
+     * @return the report
+     * @throws IllegalStateException if the calling thread is interrupted
+     */
+    public ProductReportDto getReport(ProductFilterDto productFilterDto, ReportGroup groupBy,
+            int lowStockThreshold) {
+        Specification<Product> filter = productService.filterSpecification(productFilterDto);
+
+        ExecutorCompletionService<Map<String, ProductStats>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Map<String, ProductStats>>> futures = new ArrayList<>(ranges);
+        for (int range = 0; range < ranges; range++) {
+            Specification<Product> specification = Specification.where(filter).and(idRange(range));
+            futures.add(completion.submit(() -> readOnlyTransaction
+                    .execute(status -> scan(specification, groupBy, lowStockThreshold))));
+        }
+
+        Map<String, ProductStats> groups = new HashMap<>();
+        ProductStats ungrouped = new ProductStats();
+        try {
+            for (int i = 0; i < ranges; i++) {
+                completion.take().get().forEach((group, stats) -> {
+                    if (group == null) {
+                        ungrouped.merge(stats);
+                    } else {
+                        groups.merge(group, stats, ProductStats::merge);
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing the report", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause
+                    : new IllegalStateException("Computing the report failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        Map<String, ProductStatsDto> groupStats = new TreeMap<>();
+        groups.forEach((group, stats) -> {
+            ungrouped.merge(stats);
+            groupStats.put(group, stats.toDto());
+        });
+        return new ProductReportDto(groupBy, ungrouped.toDto(), groupStats);
+    }
+
+    /**
+     * Streams the products of a range and reduces them by group; products
+     * without a value for the group are under the null key.
+     */
+    private Map<String, ProductStats> scan(Specification<Product> specification, ReportGroup groupBy,
+            int lowStockThreshold) {
+        Map<String, ProductStats> groups = new HashMap<>();
+        try (Stream<ProductDto> products = productRepository.streamAllAsDto(specification, Sort.unsorted(),
+                fetchSize)) {
+            products.forEach(product -> groups.computeIfAbsent(groupOf(product, groupBy), group -> new ProductStats())
+                    .add(product, lowStockThreshold));
+        }
+        return groups;
+    }
+
+    private static String groupOf(ProductDto product, ReportGroup groupBy) {
+        return switch (groupBy) {
+            case CATEGORY -> product.category() != null ? product.category().name() : null;
+            case BRAND -> product.brand();
+        };
+    }
+
+    /**
+     * Restricts a specification to a range of ids. Ranges split the most
+     * significant 64 bits of the ids evenly, in the unsigned order in which H2
+     * and PostgreSQL compare UUIDs; the first and last ranges are open.
+     *
+     * @param range the range index
+     * @return the specification of the range
+     */
+    private Specification<Product> idRange(int range) {
+        UUID from = range > 0 ? boundary(range) : null;
+        UUID to = range < ranges - 1 ? boundary(range + 1) : null;
+        return (root, query, builder) -> {
+            if (from == null && to == null) {
+                return builder.conjunction();
+            }
+            if (from == null) {
+                return builder.lessThan(root.get("id"), to);
+            }
+            if (to == null) {
+                return builder.greaterThanOrEqualTo(root.get("id"), from);
+            }
+            return builder.and(builder.greaterThanOrEqualTo(root.get("id"), from),
+                    builder.lessThan(root.get("id"), to));
+        };
+    }
+
+    private UUID boundary(int range) {
+        return new UUID(KEY_SPACE.multiply(BigInteger.valueOf(range)).divide(BigInteger.valueOf(ranges)).longValue(),
+                0);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
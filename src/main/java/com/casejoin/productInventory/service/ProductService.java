@@ -1,90 +1,411 @@
 package com.casejoin.productInventory.service;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.crossstore.ChangeSetPersister.NotFoundException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.casejoin.productInventory.datasource.PrimaryReads;
+import com.casejoin.productInventory.dto.ProductBatchDto;
 import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFacetsDto;
 import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.dto.ProductListVersionDto;
+import com.casejoin.productInventory.dto.ProductWindowDto;
+import com.casejoin.productInventory.dto.StockAdjustmentDto;
+import com.casejoin.productInventory.enums.ChangeType;
+import com.casejoin.productInventory.event.ProductChangedEvent;
 import com.casejoin.productInventory.exception.CustomNotFoundException;
+import com.casejoin.productInventory.exception.InsufficientStockException;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
 import com.casejoin.productInventory.exception.RequiredArgumentsMissing;
+import com.casejoin.productInventory.model.Money;
 import com.casejoin.productInventory.model.Product;
 import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.search.ProductFacetSummary;
+import com.casejoin.productInventory.search.ProductSearchIndex;
+import com.casejoin.productInventory.search.ProductSnapshot;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.criteria.Predicate;
 
 @Service
 public class ProductService {
 
+    public static final String PRODUCT_CACHE = "products";
+
+    /** Maximum number of ids of a {@link #getProductsByIds(List)} call. */
+    public static final int MAX_BATCH_IDS = 1000;
+
+    /** Page size of filters without one. */
+    public static final int DEFAULT_PAGE_SIZE = 10;
+
+    /** Largest page size accepted by the list and search endpoints. */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /** Maximum number of ids of a single IN query. */
+    private static final int ID_CHUNK_SIZE = 500;
+
+    /** Escape character of the LIKE patterns built from filter values. */
+    private static final char LIKE_ESCAPE = '\\';
+
     private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetSummary productFacetSummary;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final ProductListCache productListCache;
+    private final ProductSnapshot productSnapshot;
+    private final SingleFlight<ProductKey, ProductDto> productFlight;
+    private final SingleFlight<PageKey, List<ProductDto>> pageFlight;
+    /** Tells the list generations of this instance from those of a previous run. */
+    private final UUID listEpoch = UUID.randomUUID();
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductSearchIndex productSearchIndex,
+            ProductFacetSummary productFacetSummary, ApplicationEventPublisher eventPublisher,
+            CacheManager cacheManager, ProductListCache productListCache, ProductSnapshot productSnapshot,
+            @Value("${product.single-flight.max-wait:2s}") Duration singleFlightMaxWait,
+            MeterRegistry meterRegistry) {
         this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productFacetSummary = productFacetSummary;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.productListCache = productListCache;
+        this.productSnapshot = productSnapshot;
+        this.productFlight = new SingleFlight<>("product", singleFlightMaxWait, meterRegistry);
+        this.pageFlight = new SingleFlight<>("page", singleFlightMaxWait, meterRegistry);
     }
 
     /**
      * Retrieves a product by its unique identifier.
+     * <p>
+     * Results are cached in the {@value #PRODUCT_CACHE} cache, which is bounded
+     * and expires entries as configured by {@code spring.cache.caffeine.spec}.
+     * Updates and deletions evict the cached product.
+     * <p>
+     * Concurrent misses of the same product share a single query (see
+     * {@link SingleFlight}), as long as no product change is committed in the
+     * meantime: the catalog generation of the {@link ProductFacetSummary} is
+     * part of the key, so a read that starts after a change never gets the
+     * result of a query that started before it. For the same reason, a product
+     * read while the generation changed is not cached. The query runs in the
+     * read-only transaction of the repository, so callers waiting for it hold
+     * no connection.
      *
      * @param id the UUID of the product to be retrieved
      * @return a ProductDto containing the product details, or null if not found
      * @throws RequiredArgumentsMissing
      * @throws NotFoundException
      */
-
     public ProductDto getProduct(UUID id) throws RequiredArgumentsMissing, CustomNotFoundException {
         if (id == null) {
             throw new RequiredArgumentsMissing("Product id is missing");
         }
 
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new CustomNotFoundException("Product not found"));
+        Cache cache = cacheManager.getCache(PRODUCT_CACHE);
+        ProductDto cached = cache != null ? cache.get(id, ProductDto.class) : null;
+        if (cached != null) {
+            return cached;
+        }
 
-        return new ProductDto(product.getId(), product.getName(), product.getDescription(), product.getBrand(),
-                product.getCategory(), product.getQuantity(), product.getPrice(), product.getCreatedAt(),
-                product.getUpdatedAt());
+        // Cached for every client, so read from the primary rather than a replica that may lag
+        long generation = productFacetSummary.generation(null);
+        ProductDto product = productFlight.execute(new ProductKey(id, generation),
+                () -> PrimaryReads.call(() -> toDto(productRepository.findById(id)
+                        .orElseThrow(() -> new CustomNotFoundException("Product not found")))));
+        if (cache != null && productFacetSummary.generation(null) == generation) {
+            cache.put(id, product);
+        }
+        return product;
+    }
+
+    /**
+     * Retrieves several products by their unique identifiers.
+     * <p>
+     * Products found in the {@value #PRODUCT_CACHE} cache are served from it;
+     * the others are read with one IN query per {@value #ID_CHUNK_SIZE} ids and
+     * added to the cache, unless a product change was committed during the
+     * reads (see {@link #getProduct(UUID)}).
+     *
+     * @param ids the product ids, duplicates are ignored
+     * @return the products found, by id in request order, and the ids of the
+     *         missing products
+     * @throws RequiredArgumentsMissing if there are no ids or some id is empty
+     * @throws InvalidArgumentException if there are more than
+     *                                  {@value #MAX_BATCH_IDS} ids
+     */
+    @Transactional(readOnly = true)
+    public ProductBatchDto getProductsByIds(List<UUID> ids) throws RequiredArgumentsMissing, InvalidArgumentException {
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new RequiredArgumentsMissing("Product ids are missing or some ids are empty");
+        }
+        Set<UUID> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > MAX_BATCH_IDS) {
+            throw new InvalidArgumentException("At most " + MAX_BATCH_IDS + " product ids can be requested at once");
+        }
+
+        Cache cache = cacheManager.getCache(PRODUCT_CACHE);
+        Map<UUID, ProductDto> products = new HashMap<>(requested.size() * 2);
+        List<UUID> uncached = new ArrayList<>();
+        for (UUID id : requested) {
+            ProductDto cached = cache != null ? cache.get(id, ProductDto.class) : null;
+            if (cached != null) {
+                products.put(id, cached);
+            } else {
+                uncached.add(id);
+            }
+        }
+
+        // The products read are cached, so they are read from the primary
+        long generation = productFacetSummary.generation(null);
+        List<ProductDto> loaded = new ArrayList<>(uncached.size());
+        PrimaryReads.call(() -> {
+            for (int from = 0; from < uncached.size(); from += ID_CHUNK_SIZE) {
+                List<UUID> chunk = uncached.subList(from, Math.min(from + ID_CHUNK_SIZE, uncached.size()));
+                Specification<Product> byIds = (root, query, builder) -> root.get("id").in(chunk);
+                loaded.addAll(productRepository.findAllAsDto(byIds, Pageable.unpaged()));
+            }
+            return null;
+        });
+        boolean current = productFacetSummary.generation(null) == generation;
+        for (ProductDto product : loaded) {
+            products.put(product.id(), product);
+            if (cache != null && current) {
+                cache.put(product.id(), product);
+            }
+        }
+
+        Map<UUID, ProductDto> found = new LinkedHashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : requested) {
+            ProductDto product = products.get(id);
+            if (product != null) {
+                found.put(id, product);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductBatchDto(found, missing);
     }
 
     /**
      * Retrieves a list of products based on the provided filter criteria.
+     * <p>
+     * Pages are cached in the {@link ProductListCache} until a product of their
+     * category changes. Cached pages are served without a transaction; the
+     * others are read from the {@link ProductSnapshot} when it is enabled and
+     * built, otherwise in the read-only transaction of the repository; both
+     * order products by creation date and id. Concurrent misses of the same page share a single query (see
+     * {@link SingleFlight}).
      *
      * @param productFilterDto the product filter criteria
      * @return a list of ProductDto containing the filtered products
      * @throws CustomNotFoundException if no products are found
      */
     public List<ProductDto> getProducts(ProductFilterDto productFilterDto) throws CustomNotFoundException {
-        Specification<Product> specification = isFilterEmpty(productFilterDto) ? null : getFilteredProducts(productFilterDto);
+        // The filter is normalized by the cache: the page is at least 1, the page size defaults to 10
+        List<ProductDto> products = productListCache.get(productFilterDto, filter -> {
+            if (productSnapshot != null && productSnapshot.isReady()) {
+                return productSnapshot.find(filter);
+            }
+
+            // The order of the snapshot, so that pages do not change with the source they are read from
+            Pageable pageable = PageRequest.of(filter.page() - 1, filter.pageSize(), ProductCursor.SORT);
+
+            // Rows are mapped straight to ProductDto, without managed entities nor a count query.
+            // The generation keeps a query started before a write from being shared with the
+            // readers that arrive after it.
+            PageKey key = new PageKey(filter, productFacetSummary.generation(filter.category()));
+            return pageFlight.execute(key,
+                    () -> productRepository.findAllAsDto(filterSpecification(filter), pageable));
+        });
+
+        if (products.isEmpty()) {
+            throw new CustomNotFoundException("No products found");
+        }
+
+        return products;
+    }
+
+    /**
+     * Computes the version of the product list matching the provided filter
+     * criteria: the number of matching products and their latest modification,
+     * which change whenever a matching product is created, updated or deleted.
+     * <p>
+     * It is a single aggregate query, much cheaper than reading and serializing
+     * a page, so it can be used to validate cached list responses.
+     *
+     * @param productFilterDto the product filter criteria, its page fields are
+     *                         ignored
+     * @return the version of the matching product list
+     */
+    @Transactional(readOnly = true)
+    public ProductListVersionDto getProductsVersion(ProductFilterDto productFilterDto) {
+        return productRepository.findListVersion(filterSpecification(productFilterDto));
+    }
+
+    /**
+     * Returns a tag of the product list matching the provided filter criteria,
+     * which changes whenever a matching product is created, updated or deleted.
+     * <p>
+     * The tag is the generation of the category of the filter, counted in memory
+     * by the {@link ProductFacetSummary}, so no query is run; it changes more
+     * often than the list, on changes to products of the category that do not
+     * match the filter. While generations are not counted, the tag is the
+     * {@link #getProductsVersion(ProductFilterDto) version} of the list.
+     *
+     * @param productFilterDto the product filter criteria, its page fields are
+     *                         ignored
+     * @return the tag of the matching product list
+     */
+    public String getProductsTag(ProductFilterDto productFilterDto) {
+        long generation = productFacetSummary.generation(productFilterDto.category());
+        if (generation >= 0) {
+            return listEpoch + "/" + generation;
+        }
+        ProductListVersionDto version = productRepository.findListVersion(filterSpecification(productFilterDto));
+        return version.count() + "/" + version.lastModified();
+    }
+
+    /**
+     * Retrieves a window of products based on the provided filter criteria, using
+     * keyset (cursor) pagination.
+     * <p>
+     * Products are ordered by creation date and id, and the window starts right
+     * after the product identified by the cursor. Unlike
+     * {@link #getProducts(ProductFilterDto)}, neither an offset scan nor a count
+     * query is needed, so the cost of a window does not depend on how far the
+     * client has scrolled. The page number of the filter is ignored.
+     *
+     * @param productFilterDto the product filter criteria
+     * @param after            the cursor returned with the previous window, or
+     *                         null or blank for the first window
+     * @return the products of the window and the cursor of the next one, which is
+     *         null on the last window
+     * @throws CustomNotFoundException  if no products are found
+     * @throws InvalidArgumentException if the cursor is not valid
+     */
+    @Transactional(readOnly = true)
+    public ProductWindowDto getProductsAfter(ProductFilterDto productFilterDto, String after)
+            throws CustomNotFoundException, InvalidArgumentException {
+        Specification<Product> specification = Specification.where(filterSpecification(productFilterDto));
+        if (after != null && !after.isBlank()) {
+            specification = specification.and(ProductCursor.decode(after).toSpecification());
+        }
+
+        int pageSize = pageSize(productFilterDto);
+
+        // Fetching one extra row tells whether there is a next window
+        List<ProductDto> products = productRepository.findAllAsDto(specification,
+                PageRequest.of(0, pageSize + 1, ProductCursor.SORT));
+
+        if (products.isEmpty()) {
+            throw new CustomNotFoundException("No products found");
+        }
 
-        // Pagination
-        // Using Math.max to ensure that the page is at least 1
-        // Using ternary operator to ensure that the pageSize is at least 1
-        Pageable pageable = PageRequest.of(Math.max(productFilterDto.page() - 1, 0),
-                (productFilterDto.pageSize() > 0 ? productFilterDto.pageSize() : 10));
+        boolean hasNext = products.size() > pageSize;
+        List<ProductDto> window = hasNext ? products.subList(0, pageSize) : products;
 
-        Page<Product> productsPageable = productRepository.findAll(specification != null ? specification : Specification.where(null), pageable);
+        return new ProductWindowDto(window, hasNext ? ProductCursor.of(window.get(pageSize - 1)).encode() : null);
+    }
 
-        if (productsPageable.isEmpty()) {
+    /**
+     * Searches products by name, brand and description, ranked by relevance.
+     * <p>
+     * The search runs on the full-text index, so its cost depends on the number
+     * of matches rather than on the catalog size. Only the products of the
+     * requested page are then read from the database.
+     *
+     * @param text             the search text, every word of which must match the
+     *                         beginning of a word of the product
+     * @param productFilterDto the category and price filters and the pagination
+     * @return a list of ProductDto containing the matching products, best match
+     *         first
+     * @throws RequiredArgumentsMissing if the search text is missing
+     * @throws CustomNotFoundException  if no products are found
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDto> searchProducts(String text, ProductFilterDto productFilterDto)
+            throws RequiredArgumentsMissing, CustomNotFoundException {
+        if (text == null || text.isBlank()) {
+            throw new RequiredArgumentsMissing("Search text is missing");
+        }
+
+        int pageSize = pageSize(productFilterDto);
+        int page = productFilterDto.page() != null ? Math.max(productFilterDto.page() - 1, 0) : 0;
+
+        List<UUID> ids = productSearchIndex.search(text, productFilterDto, page * pageSize, pageSize);
+        if (ids.isEmpty()) {
             throw new CustomNotFoundException("No products found");
         }
 
-        // Convert to ProductDto
-        return productsPageable.stream().map(product -> new ProductDto(
-                product.getId(),
-                product.getName(),
-                product.getDescription(),
-                product.getBrand(),
-                product.getCategory(),
-                product.getQuantity(),
-                product.getPrice(),
-                product.getCreatedAt(),
-                product.getUpdatedAt()))
-                .collect(Collectors.toList());
+        Map<UUID, ProductDto> products = productRepository
+                .findAllAsDto((root, query, builder) -> root.get("id").in(ids), Pageable.unpaged()).stream()
+                .collect(Collectors.toMap(ProductDto::id, Function.identity()));
+
+        // Keep the ranking of the index
+        return ids.stream().map(products::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Computes the facets of the products matching the provided filter criteria:
+     * their number by category and by brand, and a price histogram.
+     * <p>
+     * Filters on category and brand only are answered from the in-memory
+     * {@link ProductFacetSummary}, without touching the table. Other filters run
+     * one grouped query.
+     *
+     * @param productFilterDto the product filter criteria, its page fields are
+     *                         ignored
+     * @return the facets
+     */
+    @Transactional(readOnly = true)
+    public ProductFacetsDto getFacets(ProductFilterDto productFilterDto) {
+        ProductFilterDto filter = productFilterDto != null ? productFilterDto : new ProductFilterDto();
+        if (productFacetSummary.supports(filter)) {
+            return productFacetSummary.facets(filter);
+        }
+
+        return productFacetSummary.aggregate(
+                productRepository.countFacets(filterSpecification(filter), productFacetSummary.getPriceBoundaries()));
+    }
+
+    /**
+     * Creates the specification of the provided filter criteria.
+     *
+     * @param productFilterDto the product filter criteria
+     * @return a Specification for filtering products, or null if the filter is
+     *         empty
+     */
+    Specification<Product> filterSpecification(ProductFilterDto productFilterDto) {
+        return isFilterEmpty(productFilterDto) ? null : getFilteredProducts(productFilterDto);
     }
 
     /**
@@ -102,7 +423,8 @@ public class ProductService {
             Predicate predicate = builder.conjunction();
 
             if (filterDto.name() != null && !filterDto.name().isBlank()) {
-                predicate = builder.and(predicate, builder.like(root.get("name"), "%" + filterDto.name() + "%"));
+                predicate = builder.and(predicate,
+                        builder.like(root.get("name"), "%" + escapeLike(filterDto.name()) + "%", LIKE_ESCAPE));
             }
 
             if (filterDto.category() != null) {
@@ -110,82 +432,389 @@ public class ProductService {
             }
 
             if (filterDto.brand() != null && !filterDto.brand().isBlank()) {
-                predicate = builder.and(predicate, builder.like(root.get("brand"), "%" + filterDto.brand() + "%"));
+                // A prefix match, unlike a substring match, is served by idx_product_brand
+                predicate = builder.and(predicate,
+                        builder.like(root.get("brand"), escapeLike(filterDto.brand()) + "%", LIKE_ESCAPE));
+            }
+
+            // Price ranges are in minor units of the default currency, other currencies do not compare
+            if (filterDto.minPrice() != null || filterDto.maxPrice() != null) {
+                predicate = builder.and(predicate, builder.equal(root.get("currency"), Money.DEFAULT_CURRENCY));
             }
 
             if (filterDto.minPrice() != null) {
                 predicate = builder.and(predicate,
-                        builder.greaterThanOrEqualTo(root.get("price"), filterDto.minPrice()));
+                        builder.greaterThanOrEqualTo(root.get("priceMinor"), filterDto.minPrice()));
             }
 
             if (filterDto.maxPrice() != null) {
-                predicate = builder.and(predicate, builder.lessThanOrEqualTo(root.get("price"), filterDto.maxPrice()));
+                predicate = builder.and(predicate,
+                        builder.lessThanOrEqualTo(root.get("priceMinor"), filterDto.maxPrice()));
             }
 
             return predicate;
         };
     }
 
+    /**
+     * Escapes the LIKE wildcards of a filter value, so that it is matched
+     * literally.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     /**
      * Creates a new product based on the provided product DTO.
      *
      * @param productDto the product details
      * @throws RequiredArgumentsMissing if the product DTO is null
+     * @throws InvalidArgumentException if the price or currency is not valid
      */
-    public void createProduct(ProductDto productDto) throws RequiredArgumentsMissing {
+    @Transactional
+    public void createProduct(ProductDto productDto) throws RequiredArgumentsMissing, InvalidArgumentException {
+        Product product = newProduct(productDto);
+        productRepository.save(product);
+        publishChange(ChangeType.CREATED, product);
+    }
+
+    /**
+     * Validates the provided product DTO and builds a new, not yet persisted,
+     * product entity from it.
+     * <p>
+     * The returned entity has no id, so it is assigned by the id generator when
+     * the entity is persisted.
+     *
+     * @param productDto the product details
+     * @return the product entity
+     * @throws RequiredArgumentsMissing if the product DTO is null or some required
+     *                                  fields are empty
+     * @throws InvalidArgumentException if the price or currency is not valid
+     */
+    Product newProduct(ProductDto productDto) throws RequiredArgumentsMissing, InvalidArgumentException {
         if (productDto == null || productDto.name() == null || productDto.category() == null
                 || productDto.price() == null) {
             throw new RequiredArgumentsMissing("Product is missing or some fields are empty");
         }
 
-        Product product = Product.builder().id(UUID.randomUUID()).brand(productDto.brand())
+        String currency = currencyOf(productDto.currency());
+        return Product.builder().brand(productDto.brand())
                 .category(productDto.category()).description(productDto.description()).name(productDto.name())
-                .price(productDto.price()).quantity(productDto.quantity()).build();
-        productRepository.save(product);
+                .priceMinor(priceMinor(productDto.price(), currency)).currency(currency)
+                .quantity(productDto.quantity()).build();
     }
 
     /**
      * Updates an existing product based on the provided product DTO.
+     * <p>
+     * Every field is replaced by a single update statement, without loading the
+     * product. The quantity is only replaced when provided; stock movements
+     * should go through {@link #adjustStock(UUID, int)}, which does not race with
+     * other writers. With a version, the update only applies to the product
+     * version that was read, and fails if another write came first.
      *
      * @param productDto the product details with an existing product ID
-     * @throws RequiredArgumentsMissing if the product Id is not present
-     * @throws CustomNotFoundException  if the product is not found
+     * @throws RequiredArgumentsMissing                 if the product Id is not
+     *                                                  present
+     * @throws CustomNotFoundException                  if the product is not
+     *                                                  found
+     * @throws InvalidArgumentException                 if the price or currency
+     *                                                  is not valid
+     * @throws ObjectOptimisticLockingFailureException if the product no longer
+     *                                                  has the given version
      */
+    @Transactional
+    @CacheEvict(cacheNames = PRODUCT_CACHE, key = "#productDto.id()", condition = "#productDto?.id() != null")
+    public void updateProduct(ProductDto productDto)
+            throws RequiredArgumentsMissing, CustomNotFoundException, InvalidArgumentException {
+        if (productDto == null || productDto.id() == null) {
+            throw new RequiredArgumentsMissing("Product id is missing");
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("name", productDto.name());
+        values.put("description", productDto.description());
+        values.put("brand", productDto.brand());
+        values.put("category", productDto.category());
+        String currency = currencyOf(productDto.currency());
+        values.put("priceMinor", productDto.price() != null ? priceMinor(productDto.price(), currency) : null);
+        values.put("currency", currency);
+        if (productDto.quantity() != null) {
+            values.put("quantity", productDto.quantity());
+        }
+        update(productDto.id(), productDto.version(), values);
+    }
 
-    public void updateProduct(ProductDto productDto) throws RequiredArgumentsMissing {
-        if (productDto.id() == null) {
+    /**
+     * Partially updates an existing product: only the fields provided in the
+     * product DTO are changed, by a single update statement that does not load
+     * the product. With a version, the update only applies to that version of
+     * the product.
+     *
+     * @param id         the product ID
+     * @param productDto the fields to change, null fields are left unchanged
+     * @throws RequiredArgumentsMissing                 if the product Id or
+     *                                                  every field is missing
+     * @throws CustomNotFoundException                  if the product is not
+     *                                                  found
+     * @throws InvalidArgumentException                 if the price or currency
+     *                                                  is not valid, or the
+     *                                                  currency is changed
+     *                                                  without the price
+     * @throws ObjectOptimisticLockingFailureException if the product no longer
+     *                                                  has the given version
+     */
+    @Transactional
+    @CacheEvict(cacheNames = PRODUCT_CACHE, key = "#id", condition = "#id != null")
+    public void patchProduct(UUID id, ProductDto productDto)
+            throws RequiredArgumentsMissing, CustomNotFoundException, InvalidArgumentException {
+        if (id == null) {
             throw new RequiredArgumentsMissing("Product id is missing");
         }
 
-        productRepository.findById(productDto.id()).ifPresentOrElse(product -> {
-            product.setBrand(productDto.brand());
-            product.setCategory(productDto.category());
-            product.setDescription(productDto.description());
-            product.setName(productDto.name());
-            product.setPrice(productDto.price());
-            product.setQuantity(productDto.quantity());
-            productRepository.save(product);
-        }, () -> {
-            new CustomNotFoundException("Product not found");
-        });
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (productDto != null) {
+            putIfPresent(values, "name", productDto.name());
+            putIfPresent(values, "description", productDto.description());
+            putIfPresent(values, "brand", productDto.brand());
+            putIfPresent(values, "category", productDto.category());
+            putIfPresent(values, "quantity", productDto.quantity());
+            if (patchedPrice(productDto) != null) {
+                String currency = currencyOf(productDto.currency());
+                values.put("priceMinor", priceMinor(productDto.price(), currency));
+                values.put("currency", currency);
+            }
+        }
+        if (values.isEmpty()) {
+            throw new RequiredArgumentsMissing("No product fields to update");
+        }
+        update(id, productDto.version(), values);
+    }
+
+    /**
+     * Adds a delta to the stock of a product.
+     * <p>
+     * The quantity is updated in place by a single conditional update, without
+     * loading or locking the product beforehand, so concurrent adjustments of the
+     * same product are never lost. The adjustment is rejected if it would take
+     * the quantity below zero.
+     *
+     * @param id    the product ID
+     * @param delta the quantity to add, negative to remove stock
+     * @throws RequiredArgumentsMissing   if the product Id is not present
+     * @throws CustomNotFoundException    if the product is not found
+     * @throws InsufficientStockException if the product does not have enough
+     *                                    stock
+     */
+    @Transactional
+    @CacheEvict(cacheNames = PRODUCT_CACHE, key = "#id", condition = "#id != null")
+    public void adjustStock(UUID id, int delta)
+            throws RequiredArgumentsMissing, CustomNotFoundException, InsufficientStockException {
+        if (id == null) {
+            throw new RequiredArgumentsMissing("Product id is missing");
+        }
+
+        if (productRepository.adjustQuantity(id, delta) == 0) {
+            if (!productRepository.existsById(id)) {
+                throw new CustomNotFoundException("Product not found");
+            }
+            throw new InsufficientStockException("Insufficient stock for product " + id);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(ChangeType.STOCK_ADJUSTED, id, null));
+    }
+
+    /**
+     * Adds deltas to the stock of several products, all or nothing.
+     * <p>
+     * Deltas of the same product are summed, and the adjustments are sent as one
+     * JDBC batch of conditional updates in a single transaction. If any product
+     * is missing or does not have enough stock, the whole batch is rolled back.
+     *
+     * @param adjustments the stock deltas
+     * @throws RequiredArgumentsMissing   if there are no adjustments or some
+     *                                    product Id is not present
+     * @throws CustomNotFoundException    if some product is not found
+     * @throws InsufficientStockException if some product does not have enough
+     *                                    stock
+     */
+    @Transactional(rollbackFor = { CustomNotFoundException.class, InsufficientStockException.class })
+    public void adjustStock(List<StockAdjustmentDto> adjustments)
+            throws RequiredArgumentsMissing, CustomNotFoundException, InsufficientStockException {
+        if (adjustments == null || adjustments.isEmpty()
+                || adjustments.stream().anyMatch(adjustment -> adjustment == null || adjustment.id() == null)) {
+            throw new RequiredArgumentsMissing("Stock adjustments are missing or some product ids are empty");
+        }
+
+        SortedMap<UUID, Integer> deltas = new TreeMap<>();
+        adjustments.forEach(adjustment -> deltas.merge(adjustment.id(), adjustment.delta(), Integer::sum));
+
+        int[] updated = productRepository.adjustQuantities(deltas);
+        List<UUID> ids = List.copyOf(deltas.keySet());
+        List<UUID> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejected.add(ids.get(i));
+            }
+        }
+
+        if (!rejected.isEmpty()) {
+            List<UUID> missing = rejected.stream().filter(id -> !productRepository.existsById(id)).toList();
+            if (!missing.isEmpty()) {
+                throw new CustomNotFoundException("Products not found: " + missing);
+            }
+            throw new InsufficientStockException("Insufficient stock for products: " + rejected);
+        }
+
+        ids.forEach(id -> eventPublisher.publishEvent(new ProductChangedEvent(ChangeType.STOCK_ADJUSTED, id, null)));
+
+        // Evicted once committed, as by @CacheEvict, after the generation bumped by the events above: evicted
+        // before, a concurrent read could cache the stock being replaced
+        Cache cache = cacheManager.getCache(PRODUCT_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(cache::evict);
+                }
+            });
+        } else {
+            ids.forEach(cache::evict);
+        }
     }
 
     /**
-     * Deletes an existing product based on the provided product ID.
+     * Deletes an existing product based on the provided product ID, with a
+     * single delete statement.
      * 
      * @param id the product ID
      * @throws RequiredArgumentsMissing if the product Id is not present
      * @throws CustomNotFoundException  if the product is not found
      */
+    @Transactional
+    @CacheEvict(cacheNames = PRODUCT_CACHE, key = "#id", condition = "#id != null")
     public void deleteProduct(UUID id) throws RequiredArgumentsMissing, CustomNotFoundException {
         if (id == null) {
             throw new RequiredArgumentsMissing("Product id is missing");
         }
-        productRepository.findById(id).ifPresentOrElse(product -> productRepository.delete(product),
-                () -> {
-                    new CustomNotFoundException("Product not found");
-                });
-        productRepository.deleteById(id);
+
+        if (productRepository.deleteProductById(id) == 0) {
+            throw new CustomNotFoundException("Product not found");
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(ChangeType.DELETED, id, null));
+    }
+
+    /**
+     * Applies an in-place update and publishes it.
+     *
+     * @param id              the product ID
+     * @param expectedVersion the version the product must have, or null
+     * @param values          the new value of each attribute to update
+     * @throws CustomNotFoundException                  if the product is not
+     *                                                  found
+     * @throws ObjectOptimisticLockingFailureException if the product does not
+     *                                                  have the expected version
+     */
+    private void update(UUID id, Long expectedVersion, Map<String, Object> values) throws CustomNotFoundException {
+        if (productRepository.updateFields(id, expectedVersion, values) == 0) {
+            // Only a failed update pays for telling a stale version from a missing product
+            if (expectedVersion != null && productRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(Product.class, id);
+            }
+            throw new CustomNotFoundException("Product not found");
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(ChangeType.UPDATED, id, null));
+    }
+
+    /**
+     * Returns the price of a partial update. A price without a currency is in
+     * the default currency; a currency cannot be set without the price, since
+     * the amount of minor units depends on it.
+     *
+     * @param productDto the fields to change
+     * @return the price, or null if the update does not change it
+     * @throws InvalidArgumentException if the currency is set without the price
+     */
+    static BigDecimal patchedPrice(ProductDto productDto) throws InvalidArgumentException {
+        if (productDto.price() == null && productDto.currency() != null) {
+            throw new InvalidArgumentException("The currency can only be changed along with the price");
+        }
+        return productDto.price();
+    }
+
+    /**
+     * Validates a currency code, defaulting to {@link Money#DEFAULT_CURRENCY}.
+     *
+     * @param currency the ISO 4217 currency code, or null
+     * @return the currency code
+     * @throws InvalidArgumentException if the currency code is not valid
+     */
+    static String currencyOf(String currency) throws InvalidArgumentException {
+        try {
+            return Money.currencyOf(currency);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidArgumentException("Invalid currency: " + currency);
+        }
+    }
+
+    /**
+     * Converts a price to minor units of its currency, exactly.
+     *
+     * @param price    the price
+     * @param currency the valid currency code
+     * @return the price in minor units
+     * @throws InvalidArgumentException if the price has more decimals than the
+     *                                  currency, or is out of range
+     */
+    static long priceMinor(BigDecimal price, String currency) throws InvalidArgumentException {
+        try {
+            return Money.toMinor(price, currency);
+        } catch (ArithmeticException e) {
+            throw new InvalidArgumentException("Invalid price for " + currency + ": " + price.toPlainString());
+        }
+    }
+
+    private static void putIfPresent(Map<String, Object> values, String attribute, Object value) {
+        if (value != null) {
+            values.put(attribute, value);
+        }
+    }
+
+    /**
+     * Publishes the change of a created or updated product, within the
+     * transaction of the change.
+     *
+     * @param type    the kind of change
+     * @param product the product after the change
+     */
+    void publishChange(ChangeType type, Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(type, product.getId(), toDto(product)));
+    }
+
+    /**
+     * Returns the page size of the given filter, defaulting to
+     * {@value #DEFAULT_PAGE_SIZE} when it is missing or not positive.
+     *
+     * @param filter the filter
+     * @return the page size
+     */
+    private int pageSize(ProductFilterDto filter) {
+        return filter.pageSize() != null && filter.pageSize() > 0 ? filter.pageSize() : DEFAULT_PAGE_SIZE;
+    }
+
+    /**
+     * Maps a product entity to its DTO.
+     *
+     * @param product the product entity
+     * @return the product DTO
+     */
+    public static ProductDto toDto(Product product) {
+        return new ProductDto(product.getId(), product.getName(), product.getDescription(), product.getBrand(),
+                product.getCategory(), product.getQuantity(),
+                product.getPriceMinor() != null ? Money.toAmount(product.getPriceMinor(), product.getCurrency()) : null,
+                product.getCurrency(), product.getCreatedAt(), product.getUpdatedAt(), product.getVersion());
     }
 
     /**
@@ -206,4 +835,16 @@ public class ProductService {
             filter.maxPrice() == null
         );
     }
+
+    /**
+     * A product, as of a catalog generation.
+     */
+    private record ProductKey(UUID id, long generation) {
+    }
+
+    /**
+     * A page of a normalized filter, as of a list generation.
+     */
+    private record PageKey(ProductFilterDto filter, long generation) {
+    }
 }
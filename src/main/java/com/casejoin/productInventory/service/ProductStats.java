@@ -0,0 +1,109 @@
+package com.casejoin.productInventory.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductStatsDto;
+import com.casejoin.productInventory.model.Money;
+
+/**
+ * Mutable accumulator of the statistics of a group of products, merged with
+ * the accumulators of other key ranges. Not thread safe: each range fills its
+ * own, and merging happens on a single thread.
+ * <p>
+ * Percentiles are exact: the prices of the group are kept, 8 bytes per
+ * product, and sorted once every range is merged.
+ */
+final class ProductStats {
+
+    /** Arrays at least this long are sorted in parallel. */
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+
+    private long count;
+    private long quantity;
+    private long lowStock;
+    private long stockValue;
+    private long minPrice = Long.MAX_VALUE;
+    private long maxPrice = Long.MIN_VALUE;
+    private long[] prices = new long[16];
+    private int priced;
+
+    /**
+     * Adds a product.
+     *
+     * @param product           the product
+     * @param lowStockThreshold the highest stock counted as low
+     */
+    void add(ProductDto product, int lowStockThreshold) {
+        count++;
+        if (product.quantity() != null) {
+            quantity += product.quantity();
+            if (product.quantity() <= lowStockThreshold) {
+                lowStock++;
+            }
+        }
+        if (product.price() != null && Money.DEFAULT_CURRENCY.equals(Money.currencyOf(product.currency()))) {
+            long price = product.priceMinor();
+            if (product.quantity() != null) {
+                stockValue += price * product.quantity();
+            }
+            minPrice = Math.min(minPrice, price);
+            maxPrice = Math.max(maxPrice, price);
+            if (priced == prices.length) {
+                prices = Arrays.copyOf(prices, priced * 2);
+            }
+            prices[priced++] = price;
+        }
+    }
+
+    /**
+     * Adds the products of another accumulator, which is left unchanged.
+     *
+     * @param other the other accumulator
+     * @return this accumulator
+     */
+    ProductStats merge(ProductStats other) {
+        count += other.count;
+        quantity += other.quantity;
+        lowStock += other.lowStock;
+        stockValue += other.stockValue;
+        minPrice = Math.min(minPrice, other.minPrice);
+        maxPrice = Math.max(maxPrice, other.maxPrice);
+        if (priced + other.priced > prices.length) {
+            prices = Arrays.copyOf(prices, Math.max(priced + other.priced, priced * 2));
+        }
+        System.arraycopy(other.prices, 0, prices, priced, other.priced);
+        priced += other.priced;
+        return this;
+    }
+
+    /**
+     * Sorts the prices and computes the statistics.
+     *
+     * @return the statistics
+     */
+    ProductStatsDto toDto() {
+        if (priced >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(prices, 0, priced);
+        } else {
+            Arrays.sort(prices, 0, priced);
+        }
+        return new ProductStatsDto(count, quantity, lowStock,
+                priced > 0 ? Money.toAmount(stockValue, Money.DEFAULT_CURRENCY) : null,
+                priced > 0 ? Money.toAmount(minPrice, Money.DEFAULT_CURRENCY) : null,
+                priced > 0 ? Money.toAmount(maxPrice, Money.DEFAULT_CURRENCY) : null,
+                percentile(50), percentile(90), percentile(99));
+    }
+
+    /**
+     * Returns a percentile of the sorted prices, by the nearest-rank method.
+     */
+    private BigDecimal percentile(int percent) {
+        if (priced == 0) {
+            return null;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * priced);
+        return Money.toAmount(prices[Math.max(rank, 1) - 1], Money.DEFAULT_CURRENCY);
+    }
+}
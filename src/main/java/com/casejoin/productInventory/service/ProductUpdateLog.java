@@ -0,0 +1,141 @@
+package com.casejoin.productInventory.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Append-only log of the updates accepted by the
+ * {@link ProductWriteBehindQueue}, so acknowledged updates survive a crash
+ * before they are flushed.
+ * <p>
+ * Updates are appended as JSON lines to the current segment and forced to
+ * disk before being acknowledged. A flush rolls the log over to a new segment,
+ * and once the flushed updates are committed, the older segments are deleted.
+ * The log is not thread-safe, the queue serializes its use.
+ */
+final class ProductUpdateLog implements Closeable {
+
+    private static final String PREFIX = "updates-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final List<Long> recovered;
+    private long segment;
+    private FileChannel channel;
+
+    ProductUpdateLog(Path directory, ObjectMapper objectMapper) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.objectMapper = objectMapper;
+        this.recovered = segments();
+        this.segment = recovered.isEmpty() ? 0 : recovered.get(recovered.size() - 1) + 1;
+        this.channel = open(segment);
+    }
+
+    /**
+     * Reads the updates left by a previous run, oldest first.
+     * <p>
+     * A partially written last line (the process died while appending it) was
+     * never acknowledged and is skipped.
+     *
+     * @return the updates of the segments that existed when the log was opened
+     * @throws IOException if a segment cannot be read
+     */
+    List<ProductDto> replay() throws IOException {
+        List<ProductDto> updates = new ArrayList<>();
+        for (long recoveredSegment : recovered) {
+            try (BufferedReader reader = Files.newBufferedReader(path(recoveredSegment), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        updates.add(objectMapper.readValue(line, ProductDto.class));
+                    } catch (JsonProcessingException e) {
+                        // Torn write
+                    }
+                }
+            }
+        }
+        return updates;
+    }
+
+    /**
+     * Appends an update to the current segment and forces it to disk.
+     *
+     * @param update the update, with its product id
+     * @throws IOException if the update cannot be written
+     */
+    void append(ProductDto update) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(update);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Starts a new segment: updates appended from now on are not part of the
+     * current flush.
+     *
+     * @return the new segment, every older segment may be deleted once the
+     *         flush is committed
+     * @throws IOException if the new segment cannot be created
+     */
+    long roll() throws IOException {
+        channel.close();
+        channel = open(++segment);
+        return segment;
+    }
+
+    /**
+     * Deletes the segments older than the given one.
+     *
+     * @param first the first segment to keep
+     * @throws IOException if a segment cannot be deleted
+     */
+    void deleteBefore(long first) throws IOException {
+        for (long existing : segments()) {
+            if (existing < first) {
+                Files.deleteIfExists(path(existing));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(path(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path path(long number) {
+        return directory.resolve(PREFIX + String.format("%019d", number) + SUFFIX);
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
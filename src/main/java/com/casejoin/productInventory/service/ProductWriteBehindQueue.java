@@ -0,0 +1,508 @@
+package com.casejoin.productInventory.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.ChangeType;
+import com.casejoin.productInventory.event.ProductChangedEvent;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
+import com.casejoin.productInventory.exception.RequiredArgumentsMissing;
+import com.casejoin.productInventory.exception.WriteQueueFullException;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Write-behind queue of partial product updates, enabled by setting
+ * {@code product.write-behind.enabled=true}.
+ * <p>
+ * Accepted updates are held in memory and coalesced per product, field by
+ * field: a later value of a field replaces the pending one, fields it does not
+ * set keep theirs. A dedicated flusher thread writes the pending updates as
+ * JDBC batches once {@code batch-size} products are pending or the oldest
+ * pending update is {@code flush-interval} old, so a burst of updates of the
+ * same product costs a single statement.
+ * <p>
+ * When {@code capacity} products are pending, updates of other products wait
+ * up to {@code offer-timeout} for a flush and are then rejected. With a
+ * {@code log-dir}, accepted updates are also appended to a durable log, which
+ * is replayed on startup. On shutdown, new updates are rejected and the
+ * pending ones are flushed.
+ * <p>
+ * Reads do not see pending updates, and updates of products that do not exist
+ * are dropped when flushed. Updates are coalesced and acknowledged before
+ * they are written, so they cannot be checked against the version the client
+ * read: updates that carry one are rejected rather than written over a newer
+ * version. Updates are checked against the column limits when
+ * accepted; an update the database still rejects, such as one replayed from
+ * the log, is isolated by writing its batch row by row, then logged and
+ * dropped, so it cannot hold back the queue.
+ */
+@Service
+@ConditionalOnProperty(name = "product.write-behind.enabled", havingValue = "true")
+public class ProductWriteBehindQueue implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductWriteBehindQueue.class);
+
+    /** Length of the text columns of the product table. */
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductUpdateLog updateLog;
+    private final int batchSize;
+    private final int capacity;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushNeeded = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<UUID, ProductDto> pending = new HashMap<>();
+    private long oldestNanos;
+    private long retryNanos;
+    private boolean stopping;
+    private final Thread flusher;
+
+    private final Counter accepted;
+    private final Counter coalesced;
+    private final Counter rejected;
+    private final Counter dropped;
+
+    public ProductWriteBehindQueue(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+            CacheManager cacheManager, ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${product.write-behind.batch-size:500}") int batchSize,
+            @Value("${product.write-behind.capacity:10000}") int capacity,
+            @Value("${product.write-behind.flush-interval:1s}") Duration flushInterval,
+            @Value("${product.write-behind.offer-timeout:1s}") Duration offerTimeout,
+            @Value("${product.write-behind.log-dir:}") String logDir) throws IOException {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = Math.max(batchSize, 1);
+        this.capacity = Math.max(capacity, 1);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+
+        this.accepted = Counter.builder("product.write-behind.accepted")
+                .description("Product updates accepted by the write-behind queue")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("product.write-behind.coalesced")
+                .description("Product updates merged into a pending update of the same product")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("product.write-behind.rejected")
+                .description("Product updates rejected because the write-behind queue was full")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("product.write-behind.dropped")
+                .description("Product updates dropped because the database rejected them")
+                .register(meterRegistry);
+        Gauge.builder("product.write-behind.pending", this, ProductWriteBehindQueue::getPendingCount)
+                .description("Products with pending updates")
+                .register(meterRegistry);
+
+        if (logDir.isBlank()) {
+            this.updateLog = null;
+        } else {
+            this.updateLog = new ProductUpdateLog(Path.of(logDir), objectMapper);
+            List<ProductDto> recovered = updateLog.replay();
+            recovered.forEach(update -> pending.merge(update.id(), update, ProductWriteBehindQueue::merge));
+            oldestNanos = System.nanoTime();
+        }
+
+        this.flusher = Thread.ofPlatform().name("product-write-behind").daemon().unstarted(this::run);
+        flusher.start();
+    }
+
+    /**
+     * Accepts a partial update of a product, to be written by a later flush.
+     *
+     * @param id         the product ID
+     * @param productDto the fields to change, null fields are left unchanged
+     * @throws RequiredArgumentsMissing if the product Id or every field is
+     *                                  missing
+     * @throws InvalidArgumentException if the price or currency is not valid,
+     *                                  the currency is changed without the
+     *                                  price, a text field is too long, or the
+     *                                  update carries a version
+     * @throws WriteQueueFullException  if the queue stayed full for the offer
+     *                                  timeout, or is shutting down
+     */
+    public void enqueue(UUID id, ProductDto productDto)
+            throws RequiredArgumentsMissing, InvalidArgumentException, WriteQueueFullException {
+        if (id == null) {
+            throw new RequiredArgumentsMissing("Product id is missing");
+        }
+        if (productDto == null || (productDto.name() == null && productDto.description() == null
+                && productDto.brand() == null && productDto.category() == null && productDto.quantity() == null
+                && productDto.price() == null)) {
+            throw new RequiredArgumentsMissing("No product fields to update");
+        }
+        if (productDto.version() != null) {
+            throw new InvalidArgumentException(
+                    "Versioned updates are not accepted in write-behind mode, send the update without a version");
+        }
+        checkLength("name", productDto.name());
+        checkLength("description", productDto.description());
+        checkLength("brand", productDto.brand());
+        BigDecimal price = ProductService.patchedPrice(productDto);
+        String currency = null;
+        if (price != null) {
+            currency = ProductService.currencyOf(productDto.currency());
+            ProductService.priceMinor(price, currency);
+        }
+        ProductDto update = new ProductDto(id, productDto.name(), productDto.description(), productDto.brand(),
+                productDto.category(), productDto.quantity(), price, currency, null, null, null);
+
+        lock.lock();
+        try {
+            long remaining = offerTimeoutNanos;
+            while (!stopping && pending.size() >= capacity && !pending.containsKey(id)) {
+                flushNeeded.signal();
+                if (remaining <= 0) {
+                    rejected.increment();
+                    throw new WriteQueueFullException("Too many pending product updates, retry later");
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+            if (stopping) {
+                throw new WriteQueueFullException("Product updates are not accepted while shutting down");
+            }
+
+            if (updateLog != null) {
+                updateLog.append(update);
+            }
+            if (pending.isEmpty()) {
+                oldestNanos = System.nanoTime();
+            }
+            if (pending.merge(id, update, ProductWriteBehindQueue::merge) != update) {
+                coalesced.increment();
+            }
+            accepted.increment();
+            if (pending.size() >= Math.min(batchSize, capacity)) {
+                flushNeeded.signal();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteQueueFullException("Interrupted while waiting for the write-behind queue");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the pending updates now, in one transaction and JDBC batch per
+     * {@code batch-size} products, then evicts the updated products from the
+     * cache and publishes their changes.
+     * <p>
+     * If the database rejects a batch, its updates are written one by one and
+     * those it still rejects are dropped. If a write fails otherwise, its
+     * updates and the following ones are queued again, under the updates
+     * accepted since, and retried by a later flush.
+     *
+     * @return the number of products updated
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            SortedMap<UUID, ProductDto> drained;
+            long segment;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                drained = new TreeMap<>(pending);
+                pending.clear();
+                segment = updateLog != null ? updateLog.roll() : 0;
+                notFull.signalAll();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                lock.unlock();
+            }
+
+            int updated = 0;
+            Iterator<Map.Entry<UUID, ProductDto>> updates = drained.entrySet().iterator();
+            while (updates.hasNext()) {
+                SortedMap<UUID, ProductDto> batch = new TreeMap<>();
+                while (updates.hasNext() && batch.size() < batchSize) {
+                    Map.Entry<UUID, ProductDto> update = updates.next();
+                    batch.put(update.getKey(), update.getValue());
+                }
+
+                try {
+                    updated += write(batch);
+                    batch.clear();
+                } catch (NonTransientDataAccessException e) {
+                    log.warn("The database rejected a batch of {} product updates, writing them one by one",
+                            batch.size(), e);
+                    updated += writeEach(batch);
+                } catch (RuntimeException e) {
+                    log.warn("Flushing {} product updates failed, retrying later", drained.size(), e);
+                }
+
+                if (!batch.isEmpty()) {
+                    requeue(batch);
+                    updates.forEachRemaining(update -> requeue(Map.of(update.getKey(), update.getValue())));
+                    return updated;
+                }
+            }
+
+            if (updateLog != null) {
+                updateLog.deleteBefore(segment);
+            }
+            return updated;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of products with pending updates.
+     *
+     * @return the number of pending products
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting updates, stops the flusher and flushes the pending
+     * updates.
+     */
+    @Override
+    public void destroy() throws InterruptedException, IOException {
+        lock.lock();
+        try {
+            stopping = true;
+            flushNeeded.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join();
+
+        try {
+            flush();
+        } finally {
+            if (updateLog != null) {
+                updateLog.close();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of coalesced updates in its own transaction.
+     *
+     * @param batch the updates, by product id
+     * @return the number of products updated
+     */
+    private int write(SortedMap<UUID, ProductDto> batch) {
+        List<UUID> ids = List.copyOf(batch.keySet());
+        // The changes are published within the transaction, for the outbox
+        int[] rows = transactionTemplate.execute(status -> {
+            int[] updates = productRepository.patchAll(batch);
+            for (int i = 0; i < updates.length; i++) {
+                if (updates[i] != 0) {
+                    eventPublisher.publishEvent(new ProductChangedEvent(ChangeType.UPDATED, ids.get(i), null));
+                }
+            }
+            return updates;
+        });
+
+        Cache cache = cacheManager.getCache(ProductService.PRODUCT_CACHE);
+        int updated = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] == 0) {
+                // The product was deleted in the meantime
+                continue;
+            }
+            updated++;
+            if (cache != null) {
+                cache.evict(ids.get(i));
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Writes the updates of a rejected batch one by one, dropping those the
+     * database rejects on their own. Written and dropped updates are removed
+     * from the batch; the first other failure stops the writes, leaving the
+     * rest of the batch to retry.
+     *
+     * @param batch the updates, by product id
+     * @return the number of products updated
+     */
+    private int writeEach(SortedMap<UUID, ProductDto> batch) {
+        int updated = 0;
+        Iterator<Map.Entry<UUID, ProductDto>> updates = batch.entrySet().iterator();
+        while (updates.hasNext()) {
+            Map.Entry<UUID, ProductDto> update = updates.next();
+            try {
+                updated += write(new TreeMap<>(Map.of(update.getKey(), update.getValue())));
+            } catch (NonTransientDataAccessException e) {
+                dropped.increment();
+                log.error("The database rejected the update {} of product {}, dropping it", update.getValue(),
+                        update.getKey(), e);
+            } catch (RuntimeException e) {
+                log.warn("Writing product updates one by one failed, retrying later", e);
+                return updated;
+            }
+            updates.remove();
+        }
+        return updated;
+    }
+
+    /**
+     * Rejects a text field longer than its column.
+     *
+     * @param field the field name
+     * @param value the field value, or null
+     * @throws InvalidArgumentException if the value is too long
+     */
+    private static void checkLength(String field, String value) throws InvalidArgumentException {
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new InvalidArgumentException(
+                    "The " + field + " cannot be longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+    }
+
+    /**
+     * Queues again updates that could not be written; updates accepted since
+     * take precedence.
+     *
+     * @param updates the updates, by product id
+     */
+    private void requeue(Map<UUID, ProductDto> updates) {
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                oldestNanos = System.nanoTime();
+            }
+            updates.forEach((id, update) -> pending.merge(id, update, (newer, older) -> merge(older, newer)));
+            retryNanos = System.nanoTime() + flushIntervalNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes whenever enough updates are pending or the oldest one is due,
+     * until the queue is stopped; after a failed flush, waits for the flush
+     * interval before retrying.
+     */
+    private void run() {
+        while (true) {
+            lock.lock();
+            try {
+                long wait;
+                while (!stopping && (wait = untilDue()) > 0) {
+                    flushNeeded.awaitNanos(wait);
+                }
+                if (stopping) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Flushing product updates failed", e);
+                lock.lock();
+                try {
+                    retryNanos = System.nanoTime() + flushIntervalNanos;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns how long the flusher should wait before the next flush, called
+     * with the lock held.
+     *
+     * @return the wait in nanoseconds, 0 or less if a flush is due
+     */
+    private long untilDue() {
+        long now = System.nanoTime();
+        if (now - retryNanos < 0) {
+            return retryNanos - now;
+        }
+        if (pending.isEmpty()) {
+            return TimeUnit.SECONDS.toNanos(60);
+        }
+        if (pending.size() >= Math.min(batchSize, capacity)) {
+            return 0;
+        }
+        return oldestNanos + flushIntervalNanos - now;
+    }
+
+    /**
+     * Merges two updates of the same product, field by field; the price and its
+     * currency go together.
+     *
+     * @param older the pending update
+     * @param newer the update accepted after it
+     * @return the fields of the newer update, completed by the older one
+     */
+    private static ProductDto merge(ProductDto older, ProductDto newer) {
+        return new ProductDto(newer.id(),
+                newer.name() != null ? newer.name() : older.name(),
+                newer.description() != null ? newer.description() : older.description(),
+                newer.brand() != null ? newer.brand() : older.brand(),
+                newer.category() != null ? newer.category() : older.category(),
+                newer.quantity() != null ? newer.quantity() : older.quantity(),
+                newer.price() != null ? newer.price() : older.price(),
+                newer.price() != null ? newer.currency() : older.currency(),
+                null, null, null);
+    }
+}
@@ -0,0 +1,152 @@
+package com.casejoin.productInventory.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller (the leader)
+ * runs the load, and the callers that arrive while it is in flight (the
+ * followers) wait for it and share its result, or its exception.
+ * <p>
+ * Followers wait at most {@code maxWait}; past it they run the load
+ * themselves rather than fail, so a stuck leader costs latency, not errors.
+ * Nothing is kept once a load completes: callers arriving later start a new
+ * load, usually served by a cache in front.
+ * <p>
+ * {@code product.single-flight.calls} counts the calls by {@code result}:
+ * {@code leader} for the loads run, {@code shared} for the followers served
+ * the leader's result or exception, and {@code timeout} for the followers
+ * that gave up waiting and ran the load themselves.
+ * {@code product.single-flight.waiting} is the number of followers waiting.
+ *
+ * @param <K> the key type, with value equality
+ * @param <V> the value type
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * A load, which may throw a checked exception.
+     *
+     * @param <V> the value type
+     * @param <E> the exception type
+     */
+    @FunctionalInterface
+    public interface Loader<V, E extends Exception> {
+        V load() throws E;
+    }
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+    private final Counter leaders;
+    private final Counter shared;
+    private final Counter timeouts;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * @param name          the name of the loads, the {@code name} tag of the
+     *                      metrics
+     * @param maxWait       how long followers wait for the leader
+     * @param meterRegistry the meter registry
+     */
+    public SingleFlight(String name, Duration maxWait, MeterRegistry meterRegistry) {
+        this.maxWaitNanos = maxWait.toNanos();
+        this.leaders = calls(meterRegistry, name, "leader");
+        this.shared = calls(meterRegistry, name, "shared");
+        this.timeouts = calls(meterRegistry, name, "timeout");
+        Gauge.builder("product.single-flight.waiting", waiting, AtomicInteger::get)
+                .description("Callers waiting for a coalesced load in flight")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    private static Counter calls(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("product.single-flight.calls")
+                .description("Coalesced loads, by whether the call ran the load, shared it or gave up waiting")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the value of a key, sharing the load in flight for the same key
+     * if there is one.
+     *
+     * @param key    the key
+     * @param loader loads the value of the key
+     * @return the value
+     * @throws E                     the exception of the load, whether this
+     *                               call or the leader ran it
+     * @throws IllegalStateException if the calling thread is interrupted while
+     *                               waiting
+     */
+    public <E extends Exception> V execute(K key, Loader<V, E> loader) throws E {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader == null) {
+            leaders.increment();
+            return lead(key, flight, loader);
+        }
+
+        // Counted as shared only once the leader's result is delivered
+        waiting.incrementAndGet();
+        try {
+            V value = leader.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            shared.increment();
+            return value;
+        } catch (TimeoutException e) {
+            timeouts.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a load in flight", e);
+        } catch (ExecutionException e) {
+            shared.increment();
+            throw SingleFlight.<E>rethrow(e.getCause());
+        } finally {
+            waiting.decrementAndGet();
+        }
+        return loader.load();
+    }
+
+    private <E extends Exception> V lead(K key, CompletableFuture<V> flight, Loader<V, E> loader) throws E {
+        try {
+            V value = loader.load();
+            flight.complete(value);
+            return value;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Rethrows the exception of the leader's load. Every load of a key is the
+     * same read, so it is an exception the follower's own load could have
+     * thrown.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Exception> E rethrow(Throwable cause) throws E {
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        throw (E) cause;
+    }
+
+    /**
+     * @return the number of loads in flight
+     */
+    public int size() {
+        return inFlight.size();
+    }
+}
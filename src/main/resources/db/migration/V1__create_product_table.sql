@@ -0,0 +1,12 @@
+CREATE TABLE product (
+    id UUID NOT NULL,
+    name VARCHAR(255),
+    description VARCHAR(255),
+    brand VARCHAR(255),
+    category VARCHAR(32),
+    quantity INTEGER,
+    price FLOAT(53),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,8 @@
+-- Category pages filter by category and a price range
+CREATE INDEX idx_product_category_price ON product (category, price);
+
+-- Brand lookups and brand facets
+CREATE INDEX idx_product_brand ON product (brand);
+
+-- Stable sort key of cursor pagination: (created_at, id)
+CREATE INDEX idx_product_created_at_id ON product (created_at, id);
@@ -0,0 +1,12 @@
+-- Prices become exact: a whole number of minor units (cents) of the product currency.
+-- Existing prices were in the default currency, BRL, which has two decimals.
+ALTER TABLE product ADD COLUMN price_minor BIGINT;
+ALTER TABLE product ADD COLUMN currency VARCHAR(3) DEFAULT 'BRL' NOT NULL;
+UPDATE product SET price_minor = CAST(ROUND(price * 100) AS BIGINT) WHERE price IS NOT NULL;
+
+DROP INDEX idx_product_category_price;
+ALTER TABLE product DROP COLUMN price;
+
+-- Category pages filter by category and a price range, unfiltered lists may sort and filter by price
+CREATE INDEX idx_product_category_price_minor ON product (category, price_minor);
+CREATE INDEX idx_product_price_minor ON product (price_minor);
@@ -0,0 +1,8 @@
+-- Heartbeat written to the primary and read back from the replicas to measure their lag
+-- (see ReplicaMonitor), in epoch milliseconds
+CREATE TABLE replica_heartbeat (
+    id INTEGER NOT NULL,
+    beat BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+INSERT INTO replica_heartbeat (id, beat) VALUES (1, 0);
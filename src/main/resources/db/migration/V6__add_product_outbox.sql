@@ -0,0 +1,21 @@
+-- Transactional outbox of product changes (see ProductOutbox): a row is written in the transaction
+-- of each change, and numbered by the relay when it publishes it. Numbers are assigned in commit
+-- order, so a change numbered later never has a lower number.
+CREATE TABLE product_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    product_id UUID NOT NULL,
+    type VARCHAR(32) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    seq BIGINT,
+    published_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+CREATE UNIQUE INDEX idx_product_outbox_seq ON product_outbox (seq);
+
+-- Last number assigned by the relay, its row is locked while publishing so that a single relay runs
+CREATE TABLE product_outbox_relay (
+    id INTEGER NOT NULL,
+    last_seq BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+INSERT INTO product_outbox_relay (id, last_seq) VALUES (1, 0);
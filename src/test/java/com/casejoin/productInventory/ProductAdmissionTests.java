@@ -0,0 +1,211 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.casejoin.productInventory.filter.AdaptiveConcurrencyLimit;
+import com.casejoin.productInventory.filter.AdmissionControlFilter;
+import com.casejoin.productInventory.filter.TokenBucket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(properties = { "product.admission.enabled=true", "product.admission.rate=1",
+		"product.admission.burst=10", "product.admission.rows-per-token=10", "product.admission.scan-cost=10",
+		"product.admission.api-keys=greedy,polite,large,large search,exporter" })
+@AutoConfigureMockMvc
+class ProductAdmissionTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	@Description("Should refill the token bucket at its rate, up to its capacity")
+	void tokenBucketTest() {
+		TokenBucket bucket = new TokenBucket(10, 20, 0);
+		assertEquals(0, bucket.tryAcquire(15, 0));
+		assertEquals(0, bucket.tryAcquire(5, 0));
+		assertEquals(SECOND / 10, bucket.tryAcquire(1, 0));
+
+		// Half a second refills 5 tokens, a long pause no more than the capacity
+		assertEquals(0, bucket.tryAcquire(5, SECOND / 2));
+		assertTrue(bucket.tryAcquire(1, SECOND / 2) > 0);
+		assertEquals(0, bucket.tryAcquire(20, 100 * SECOND));
+		assertTrue(bucket.tryAcquire(1, 100 * SECOND) > 0);
+
+		// A cost above the capacity takes the full bucket
+		assertEquals(0, bucket.tryAcquire(50, 200 * SECOND));
+		assertTrue(bucket.tryAcquire(1, 200 * SECOND) > 0);
+	}
+
+	@Test
+	@Description("Should admit exactly the capacity of the bucket to concurrent requests")
+	void concurrentTokenBucketTest() throws Exception {
+		TokenBucket bucket = new TokenBucket(1, 1000, 0);
+		AtomicInteger admitted = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			threads.add(Thread.ofPlatform().start(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int j = 0; j < 500; j++) {
+					if (bucket.tryAcquire(1, 0) == 0) {
+						admitted.incrementAndGet();
+					}
+				}
+			}));
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(1000, admitted.get());
+	}
+
+	@Test
+	@Description("Should raise the concurrency limit while latency is stable and shed load once it rises")
+	void adaptiveLimitTest() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 1.5);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(limit.tryAcquire());
+		}
+		assertFalse(limit.tryAcquire());
+
+		saturate(limit, 200, TimeUnit.MILLISECONDS.toNanos(10));
+		int grown = limit.getLimit();
+		assertTrue(grown > 10, "limit " + grown);
+
+		// The limit settles where the square root allowance balances the halving
+		saturate(limit, 200, TimeUnit.MILLISECONDS.toNanos(200));
+		assertTrue(limit.getLimit() <= 4, "limit " + limit.getLimit());
+	}
+
+	/**
+	 * Keeps the limit saturated, completing one request at a time with the
+	 * given latency.
+	 */
+	private static void saturate(AdaptiveConcurrencyLimit limit, int samples, long rttNanos) {
+		for (int i = 0; i < samples; i++) {
+			while (limit.tryAcquire()) {
+				// Fill up to the limit
+			}
+			limit.release(rttNanos);
+		}
+	}
+
+	@Test
+	@Description("Should reject with 429 and Retry-After the clients that run out of tokens, one client at a time")
+	void rateLimitTest() throws Exception {
+		double rejected = rateLimited();
+		// 1 token + 10 for the page rows: a burst of 10 admits one such request, then refills in 10 seconds
+		mockMvc.perform(get("/api/v1/product?pageSize=100").header(AdmissionControlFilter.API_KEY_HEADER, "greedy"))
+				.andExpect(result -> assertNotEquals(429, result.getResponse().getStatus()));
+		mockMvc.perform(get("/api/v1/product?pageSize=100").header(AdmissionControlFilter.API_KEY_HEADER, "greedy"))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+
+		mockMvc.perform(get("/api/v1/product?pageSize=10").header(AdmissionControlFilter.API_KEY_HEADER, "polite"))
+				.andExpect(result -> assertNotEquals(429, result.getResponse().getStatus()));
+
+		assertEquals(rejected + 1, rateLimited());
+	}
+
+	private double rateLimited() {
+		return meterRegistry.find("product.admission.rejected").tag("reason", "rate").counters().stream()
+				.mapToDouble(counter -> counter.count()).sum();
+	}
+
+	@Test
+	@Description("Should identify the clients with an unknown API key by their address, whatever the key")
+	void unknownKeyTest() throws Exception {
+		// Both requests take the whole bucket of the address, the second one despite its new key
+		mockMvc.perform(get("/api/v1/product?pageSize=100").header(AdmissionControlFilter.API_KEY_HEADER, "unknown 1")
+				.with(request -> address(request, "10.0.0.1")))
+				.andExpect(result -> assertNotEquals(429, result.getResponse().getStatus()));
+		mockMvc.perform(get("/api/v1/product?pageSize=100").header(AdmissionControlFilter.API_KEY_HEADER, "unknown 2")
+				.with(request -> address(request, "10.0.0.1")))
+				.andExpect(status().isTooManyRequests());
+
+		mockMvc.perform(get("/api/v1/product?pageSize=100").header(AdmissionControlFilter.API_KEY_HEADER, "unknown 3")
+				.with(request -> address(request, "10.0.0.2")))
+				.andExpect(result -> assertNotEquals(429, result.getResponse().getStatus()));
+	}
+
+	@Test
+	@Description("Should charge an export the scan cost, whatever its page size")
+	void scanCostTest() throws Exception {
+		mockMvc.perform(get("/api/v1/product/export").header(AdmissionControlFilter.API_KEY_HEADER, "exporter"))
+				.andExpect(result -> assertNotEquals(429, result.getResponse().getStatus()));
+		mockMvc.perform(get("/api/v1/product/export").header(AdmissionControlFilter.API_KEY_HEADER, "exporter"))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+	}
+
+	@Test
+	@Description("Should hold the permit of an asynchronous request until its response completes")
+	void asyncPermitTest() throws Exception {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, 1.5);
+		AdmissionControlFilter filter = new AdmissionControlFilter(1000, 1000, 10, 10, 100, 10, Set.of(), limit,
+				new ObjectMapper(), new SimpleMeterRegistry());
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/product/export");
+		request.setAsyncSupported(true);
+		filter.doFilter(request, new MockHttpServletResponse(),
+				(servletRequest, servletResponse) -> servletRequest.startAsync());
+		assertEquals(1, limit.getInFlight());
+
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/product"), rejected,
+				(servletRequest, servletResponse) -> ((MockHttpServletResponse) servletResponse).setStatus(200));
+		assertEquals(429, rejected.getStatus());
+
+		request.getAsyncContext().complete();
+		assertEquals(0, limit.getInFlight());
+	}
+
+	private static MockHttpServletRequest address(MockHttpServletRequest request, String address) {
+		request.setRemoteAddr(address);
+		return request;
+	}
+
+	@Test
+	@Description("Should reject page sizes above the maximum")
+	void maxPageSizeTest() throws Exception {
+		mockMvc.perform(get("/api/v1/product?pageSize=101").header(AdmissionControlFilter.API_KEY_HEADER, "large"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/v1/product/search?q=x&pageSize=1000").header(AdmissionControlFilter.API_KEY_HEADER,
+				"large search")).andExpect(status().isBadRequest());
+	}
+}
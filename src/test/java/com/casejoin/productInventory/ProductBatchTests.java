@@ -0,0 +1,103 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Description;
+
+import com.casejoin.productInventory.dto.ProductBatchDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "product.outbox.relay.enabled=false")
+class ProductBatchTests {
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private List<Product> products;
+
+	@BeforeEach
+	public void setUp() {
+		cacheManager.getCache(ProductService.PRODUCT_CACHE).clear();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		products = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			products.add(productRepository.save(Product.builder().name("Batch Product " + i).brand("Brand")
+					.category(Category.TOYS).quantity(i).priceMinor(1000L * i).build()));
+		}
+		statistics.clear();
+	}
+
+	@Test
+	@Description("Should resolve the products with a single query, in request order, and list the missing ids")
+	void foundAndMissingTest() throws Exception {
+		UUID missing = UUID.randomUUID();
+		ProductBatchDto batch = productService.getProductsByIds(List.of(products.get(2).getId(), missing,
+				products.get(0).getId(), products.get(2).getId()));
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(List.of(products.get(2).getId(), products.get(0).getId()), List.copyOf(batch.found().keySet()));
+		assertEquals("Batch Product 2", batch.found().get(products.get(2).getId()).name());
+		assertEquals(List.of(missing), batch.missing());
+	}
+
+	@Test
+	@Description("Should serve cached products from the cache and only query the others")
+	void cachedTest() throws Exception {
+		productService.getProduct(products.get(0).getId());
+		productService.getProductsByIds(List.of(products.get(1).getId()));
+		statistics.clear();
+
+		ProductBatchDto batch = productService.getProductsByIds(List.of(products.get(0).getId(),
+				products.get(1).getId()));
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(2, batch.found().size());
+
+		productService.getProductsByIds(List.of(products.get(0).getId(), products.get(2).getId()));
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	@Description("Should split large id lists into chunked IN queries, and reject lists over the limit")
+	void chunkedTest() throws Exception {
+		List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < ProductService.MAX_BATCH_IDS; i++) {
+			ids.add(UUID.randomUUID());
+		}
+
+		ProductBatchDto batch = productService.getProductsByIds(ids);
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(ProductService.MAX_BATCH_IDS, batch.missing().size());
+
+		ids.add(UUID.randomUUID());
+		assertThrows(InvalidArgumentException.class, () -> productService.getProductsByIds(ids));
+	}
+}
@@ -0,0 +1,302 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Description;
+
+import com.casejoin.productInventory.dto.ProductBatchDto;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.CustomNotFoundException;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
+import com.casejoin.productInventory.exception.RequiredArgumentsMissing;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductService;
+import com.casejoin.productInventory.service.SingleFlight;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ProductCacheTests {
+
+	/** Concurrent reads of the coalescing tests. */
+	private static final int CALLERS = 8;
+
+	@MockBean
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Product product;
+
+	@BeforeEach
+	public void setUp() {
+		cacheManager.getCache(ProductService.PRODUCT_CACHE).clear();
+		product = new Product(UUID.randomUUID(), "Test Product", "Description", "Brand", Category.GAMES, 1, 50000L,
+				"BRL", null, null, null);
+		when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+		when(productRepository.save(any(Product.class))).thenReturn(product);
+		when(productRepository.updateFields(eq(product.getId()), any(), any())).thenReturn(1);
+	}
+
+	@Test
+	@Description("Should load a product once and serve the following reads from the cache")
+	void cachedProductTest() throws RequiredArgumentsMissing, CustomNotFoundException {
+		double hits = meterRegistry.get("cache.gets").tag("cache", ProductService.PRODUCT_CACHE)
+				.tag("result", "hit").functionCounter().count();
+
+		productService.getProduct(product.getId());
+		productService.getProduct(product.getId());
+
+		verify(productRepository, times(1)).findById(product.getId());
+		assertEquals(hits + 1, meterRegistry.get("cache.gets").tag("cache", ProductService.PRODUCT_CACHE)
+				.tag("result", "hit").functionCounter().count());
+	}
+
+	@Test
+	@Description("Should evict the cached product when it is updated")
+	void evictOnUpdateTest() throws RequiredArgumentsMissing, CustomNotFoundException, InvalidArgumentException {
+		productService.getProduct(product.getId());
+		productService.updateProduct(new ProductDto(product.getId(), "New name", null, null, Category.GAMES, 2,
+				new BigDecimal("10.00"), null, null));
+		productService.getProduct(product.getId());
+
+		// Once for each read, the update does not load the product
+		verify(productRepository, times(2)).findById(product.getId());
+	}
+
+	@Test
+	@Description("Should tag a product list from the generation of its category, without a query, until a product changes")
+	void listTagTest() throws RequiredArgumentsMissing, CustomNotFoundException, InvalidArgumentException {
+		ProductFilterDto filter = new ProductFilterDto(null, Category.GAMES, null, null, null, 1, 10);
+		String tag = productService.getProductsTag(filter);
+		assertEquals(tag, productService.getProductsTag(filter));
+
+		productService.updateProduct(new ProductDto(product.getId(), "New name", null, null, Category.GAMES, 2,
+				new BigDecimal("10.00"), null, null));
+
+		assertNotEquals(tag, productService.getProductsTag(filter));
+		verify(productRepository, never()).findListVersion(any());
+	}
+
+	@Test
+	@Description("Should share a single query among concurrent reads of the same product")
+	void coalescedProductTest() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(productRepository.findById(product.getId())).thenAnswer(invocation -> {
+			release.await();
+			return Optional.of(product);
+		});
+
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+		try {
+			List<Future<ProductDto>> results = readConcurrently(executor, release);
+			for (Future<ProductDto> result : results) {
+				assertEquals(product.getName(), result.get(5, TimeUnit.SECONDS).name());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		verify(productRepository, times(1)).findById(product.getId());
+	}
+
+	@Test
+	@Description("Should propagate the failure of a shared query to every waiting read")
+	void coalescedFailureTest() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(productRepository.findById(product.getId())).thenAnswer(invocation -> {
+			release.await();
+			return Optional.empty();
+		});
+
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+		try {
+			for (Future<ProductDto> result : readConcurrently(executor, release)) {
+				ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+				assertInstanceOf(CustomNotFoundException.class, e.getCause());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		verify(productRepository, times(1)).findById(product.getId());
+	}
+
+	@Test
+	@Description("Should stop waiting for a stuck load after the maximum wait and load on its own")
+	void boundedWaitTest() throws Exception {
+		SingleFlight<String, String> flight = new SingleFlight<>("bounded", Duration.ofMillis(50), meterRegistry);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+				loads.incrementAndGet();
+				release.await();
+				return "leader";
+			}));
+			awaitCalls("bounded", "leader", 1);
+
+			assertEquals("follower", flight.execute("key", () -> {
+				loads.incrementAndGet();
+				return "follower";
+			}));
+			release.countDown();
+			assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(2, loads.get());
+		assertEquals(1, calls("bounded", "timeout"));
+		assertEquals(0, calls("bounded", "shared"));
+	}
+
+	@Test
+	@Description("Should not share nor cache a read started before a product change once the change is committed")
+	void changeDuringReadTest() throws Exception {
+		Product changed = new Product(product.getId(), "New name", "Description", "Brand", Category.GAMES, 1, 50000L,
+				"BRL", null, null, null);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+		when(productRepository.findById(product.getId())).thenAnswer(invocation -> {
+			if (loads.getAndIncrement() > 0) {
+				return Optional.of(changed);
+			}
+			loading.countDown();
+			release.await();
+			return Optional.of(product);
+		});
+		double shared = calls("product", "shared");
+		double timeouts = calls("product", "timeout");
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<ProductDto> stale = executor.submit(() -> productService.getProduct(product.getId()));
+			assertTrue(loading.await(5, TimeUnit.SECONDS));
+			productService.updateProduct(new ProductDto(product.getId(), "New name", null, null, Category.GAMES, 1,
+					new BigDecimal("500.00"), null, null));
+
+			assertEquals("New name", productService.getProduct(product.getId()).name());
+			release.countDown();
+			assertEquals(product.getName(), stale.get(5, TimeUnit.SECONDS).name());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(shared, calls("product", "shared"));
+		assertEquals(timeouts, calls("product", "timeout"));
+		assertEquals("New name", productService.getProduct(product.getId()).name());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	@Description("Should not cache the products of a batch read during which a product change was committed")
+	void changeDuringBatchReadTest() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+		when(productRepository.findAllAsDto(any(), any())).thenAnswer(invocation -> {
+			if (loads.getAndIncrement() > 0) {
+				return List.of();
+			}
+			loading.countDown();
+			release.await();
+			return List.of(ProductService.toDto(product));
+		});
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<ProductBatchDto> stale = executor.submit(() -> productService.getProductsByIds(
+					List.of(product.getId())));
+			assertTrue(loading.await(5, TimeUnit.SECONDS));
+			productService.updateProduct(new ProductDto(product.getId(), "New name", null, null, Category.GAMES, 1,
+					new BigDecimal("500.00"), null, null));
+			release.countDown();
+			assertEquals(product.getName(), stale.get(5, TimeUnit.SECONDS).found().get(product.getId()).name());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertNull(cacheManager.getCache(ProductService.PRODUCT_CACHE).get(product.getId()));
+	}
+
+	/**
+	 * Reads the product from {@value #CALLERS} threads at once, releasing the
+	 * query once every other reader waits for it.
+	 */
+	private List<Future<ProductDto>> readConcurrently(ExecutorService executor, CountDownLatch release)
+			throws InterruptedException {
+		List<Future<ProductDto>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(executor.submit(() -> productService.getProduct(product.getId())));
+		}
+		awaitWaiting("product", CALLERS - 1);
+		release.countDown();
+		return results;
+	}
+
+	private void awaitCalls(String name, String result, double count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (calls(name, result) < count) {
+			assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + count + " " + result + " calls");
+			Thread.sleep(5);
+		}
+	}
+
+	private void awaitWaiting(String name, double count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (meterRegistry.get("product.single-flight.waiting").tag("name", name).gauge().value() < count) {
+			assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + count + " waiting calls");
+			Thread.sleep(5);
+		}
+	}
+
+	private double calls(String name, String result) {
+		return meterRegistry.get("product.single-flight.calls").tag("name", name).tag("result", result).counter()
+				.count();
+	}
+}
@@ -0,0 +1,107 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Description;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.casejoin.productInventory.filter.ConcurrencyLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"product.concurrency.max-in-flight=1", "product.admission.enabled=true" })
+class ProductConcurrencyLimitTests {
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Test
+	@Description("Should reject with 503 and Retry-After the requests beyond the limit, once the queue timeout passes")
+	void rejectsExcessRequestsTest() throws Exception {
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(50), new ObjectMapper(),
+				meterRegistry);
+		CountDownLatch inFlight = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		// The first request holds the only permit until released
+		MockHttpServletResponse first = new MockHttpServletResponse();
+		Thread holder = Thread.ofPlatform().start(() -> {
+			try {
+				filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/product"), first, (request, response) -> {
+					inFlight.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/product"), rejected,
+				(request, response) -> ((MockHttpServletResponse) response).setStatus(200));
+		assertEquals(503, rejected.getStatus());
+		assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+		assertEquals(1, meterRegistry.get("product.concurrency.rejected").counter().count());
+		assertEquals(1, meterRegistry.get("product.concurrency.in-flight").gauge().value());
+
+		release.countDown();
+		holder.join();
+		assertEquals(200, first.getStatus());
+
+		// The released permit admits the next request
+		MockHttpServletResponse admitted = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/product"), admitted,
+				(request, response) -> ((MockHttpServletResponse) response).setStatus(200));
+		assertEquals(200, admitted.getStatus());
+		assertEquals(0, meterRegistry.get("product.concurrency.in-flight").gauge().value());
+	}
+
+	@Test
+	@Description("Should hold the permit of an asynchronous request, such as an export, until its response completes")
+	void asyncPermitTest() throws Exception {
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(50), new ObjectMapper(),
+				meterRegistry);
+
+		MockHttpServletRequest export = new MockHttpServletRequest("GET", "/api/v1/product/export");
+		export.setAsyncSupported(true);
+		filter.doFilter(export, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+		assertEquals(1, meterRegistry.get("product.concurrency.in-flight").gauge().value());
+
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/product"), rejected,
+				(request, response) -> ((MockHttpServletResponse) response).setStatus(200));
+		assertEquals(503, rejected.getStatus());
+
+		export.getAsyncContext().complete();
+		assertEquals(0, meterRegistry.get("product.concurrency.in-flight").gauge().value());
+	}
+
+	@Test
+	@Description("Should register only the admission control when both limits are configured")
+	void admissionControlReplacesLimitTest() {
+		assertTrue(applicationContext.containsBean("admissionControlFilter"));
+		assertFalse(applicationContext.containsBean("concurrencyLimitFilter"));
+	}
+}
@@ -0,0 +1,117 @@
+package com.casejoin.productInventory;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductConditionalGetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	private Product product;
+
+	@BeforeEach
+	public void setUp() {
+		product = productRepository.save(Product.builder().name("Conditional Product").category(Category.BOOKS)
+				.brand("Conditional Brand").quantity(1).priceMinor(1000L).build());
+	}
+
+	@Test
+	@Description("Should answer a product request with 304 while its version ETag is current")
+	void productNotModifiedTest() throws Exception {
+		String path = "/api/v1/product/" + product.getId();
+		String etag = mockMvc.perform(get(path)).andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + product.getVersion() + "-json\""))
+				.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified()).andExpect(content().string(""));
+
+		productService.patchProduct(product.getId(), new ProductDto(null, null, null, null, null, null,
+				new BigDecimal("20.00"), null, null));
+
+		String newEtag = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, newEtag);
+		assertNotNull(productRepository.findById(product.getId()).orElseThrow().getUpdatedAt());
+	}
+
+	@Test
+	@Description("Should tag the JSON and CBOR representations with different ETags and vary them on Accept")
+	void representationTest() throws Exception {
+		String path = "/api/v1/product/" + product.getId();
+		String json = mockMvc.perform(get(path).accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk())
+				.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String cbor = mockMvc.perform(get(path).accept(MediaType.APPLICATION_CBOR)).andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + product.getVersion() + "-cbor\""))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(json, cbor);
+
+		// A JSON copy does not validate a CBOR request
+		mockMvc.perform(get(path).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, json))
+				.andExpect(status().isOk());
+		mockMvc.perform(get(path).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, cbor))
+				.andExpect(status().isNotModified())
+				.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+
+		String listPath = "/api/v1/product?brand=Conditional";
+		String jsonList = mockMvc.perform(get(listPath).accept(MediaType.APPLICATION_JSON))
+				.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mockMvc.perform(get(listPath).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonList))
+				.andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, not(jsonList)));
+	}
+
+	@Test
+	@Description("Should answer a list request with 304 until a matching product changes or is deleted")
+	void listNotModifiedTest() throws Exception {
+		productRepository.save(Product.builder().name("Other Conditional Product").category(Category.BOOKS)
+				.brand("Conditional Brand").quantity(1).priceMinor(1000L).build());
+		String path = "/api/v1/product?brand=Conditional";
+		String etag = mockMvc.perform(get(path)).andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified()).andExpect(content().string(""));
+
+		productService.deleteProduct(product.getId());
+
+		mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+	}
+}
@@ -0,0 +1,109 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.dto.ProductWindowDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductCursorTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	@Description("Should walk every product once, breaking ties on the creation date by id, and end with a null cursor")
+	void windowsTest() throws Exception {
+		String brand = "Cursor " + UUID.randomUUID();
+		for (int i = 0; i < 5; i++) {
+			productService.createProduct(new ProductDto(null, "Cursor " + i, null, brand, Category.BOOKS, 1,
+					new BigDecimal("5.00"), null, null));
+		}
+		// Every product created at the same instant: only the id orders them
+		jdbcTemplate.update("UPDATE product SET created_at = ? WHERE brand = ?",
+				Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 12, 0)), brand);
+
+		ProductFilterDto filter = new ProductFilterDto(null, null, brand, null, null, 1, 2);
+		List<UUID> expected = productRepository
+				.findAllAsDto((root, query, builder) -> builder.equal(root.get("brand"), brand),
+						PageRequest.of(0, 10, Sort.by("createdAt", "id")))
+				.stream().map(ProductDto::id).toList();
+		assertEquals(5, expected.size());
+
+		List<UUID> walked = new ArrayList<>();
+		List<Integer> sizes = new ArrayList<>();
+		String cursor = "";
+		while (cursor != null) {
+			ProductWindowDto window = productService.getProductsAfter(filter, cursor);
+			window.products().forEach(product -> walked.add(product.id()));
+			sizes.add(window.products().size());
+			cursor = window.nextCursor();
+			if (sizes.size() < 3) {
+				assertNotNull(cursor);
+			}
+		}
+
+		assertEquals(List.of(2, 2, 1), sizes);
+		assertEquals(expected, walked);
+	}
+
+	@Test
+	@Description("Should return a null cursor when the window holds the last product")
+	void lastWindowTest() throws Exception {
+		String brand = "Cursor " + UUID.randomUUID();
+		productService.createProduct(new ProductDto(null, "Only", null, brand, Category.BOOKS, 1,
+				new BigDecimal("5.00"), null, null));
+
+		ProductWindowDto window = productService.getProductsAfter(
+				new ProductFilterDto(null, null, brand, null, null, 1, 1), null);
+		assertEquals(1, window.products().size());
+		assertNull(window.nextCursor());
+	}
+
+	@Test
+	@Description("Should reject a cursor that is not valid with 400")
+	void invalidCursorTest() throws Exception {
+		ProductFilterDto filter = new ProductFilterDto(null, null, null, null, null, 1, 10);
+		assertThrows(InvalidArgumentException.class, () -> productService.getProductsAfter(filter, "not a cursor"));
+		assertThrows(InvalidArgumentException.class, () -> productService.getProductsAfter(filter, "bm90IGEgY3Vyc29y"));
+
+		mockMvc.perform(get("/api/v1/product").param("after", "not a cursor")).andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,116 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Description;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.enums.ExportFormat;
+import com.casejoin.productInventory.search.ProductSearchIndex;
+import com.casejoin.productInventory.service.ProductExportService;
+
+/**
+ * Exports a million products in a JVM with a 192 MB heap (see the
+ * {@code small-heap-test} execution of the build). The products live in a file
+ * database, so the heap only has to hold what the export itself retains.
+ */
+@Tag("small-heap")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"spring.datasource.url=jdbc:h2:file:./target/h2/product-export",
+		"logging.level.org.hibernate.SQL=INFO",
+		"logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO" })
+class ProductExportTests {
+
+	private static final int ROWS = 1_000_000;
+	private static final int SEED_BATCH_SIZE = 100_000;
+
+	// The index would be rebuilt from the whole catalog on startup
+	@MockBean
+	private ProductSearchIndex productSearchIndex;
+
+	@Autowired
+	private ProductExportService productExportService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	public void setUp() {
+		// The database file is kept between runs, only missing rows are seeded
+		int seeded = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Integer.class);
+		for (int from = seeded + 1; from <= ROWS; from += SEED_BATCH_SIZE) {
+			jdbcTemplate.update("INSERT INTO product (id, name, description, brand, category, quantity, price_minor, "
+					+ "created_at, version) SELECT RANDOM_UUID(), 'Product ' || X, 'Description, \"quoted\" ' || X, "
+					+ "'Brand ' || MOD(X, 50), CASE MOD(X, 3) WHEN 0 THEN 'GAMES' WHEN 1 THEN 'BOOKS' ELSE 'TOYS' END, "
+					+ "MOD(X, 100), 100 * (1 + MOD(X, 1000)), DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), 0 "
+					+ "FROM SYSTEM_RANGE(?, ?)", from, Math.min(from + SEED_BATCH_SIZE - 1, ROWS));
+		}
+	}
+
+	@Test
+	@Description("Should stream the whole catalog as NDJSON in constant memory")
+	void exportNdjsonTest() throws IOException {
+		LineCountingOutputStream out = new LineCountingOutputStream();
+
+		long exported = productExportService.exportProducts(new ProductFilterDto(), ExportFormat.NDJSON, out);
+
+		assertEquals(ROWS, exported);
+		assertEquals(ROWS, out.lines);
+	}
+
+	@Test
+	@Description("Should stream the filtered products as CSV, with a header row")
+	void exportCsvTest() throws IOException {
+		LineCountingOutputStream out = new LineCountingOutputStream();
+
+		long exported = productExportService.exportProducts(
+				new ProductFilterDto(null, Category.GAMES, null, null, null, null, null), ExportFormat.CSV, out);
+
+		assertEquals(ROWS / 3, exported);
+		assertEquals(ROWS / 3 + 1, out.lines);
+		assertEquals("id,name,description,brand,category,quantity,price,currency,createdAt,updatedAt", out.firstLine());
+	}
+
+	/**
+	 * Counts the written lines, keeping only the first one.
+	 */
+	private static final class LineCountingOutputStream extends OutputStream {
+
+		private final ByteArrayOutputStream firstLine = new ByteArrayOutputStream();
+		private long lines;
+
+		@Override
+		public void write(int b) {
+			if (lines == 0 && b != '\n') {
+				firstLine.write(b);
+			}
+			if (b == '\n') {
+				lines++;
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			for (int i = off; i < off + len; i++) {
+				write(b[i]);
+			}
+		}
+
+		private String firstLine() {
+			return firstLine.toString(StandardCharsets.UTF_8);
+		}
+	}
+}
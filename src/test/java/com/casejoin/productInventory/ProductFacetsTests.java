@@ -0,0 +1,116 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+import org.springframework.data.domain.Pageable;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFacetsDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.search.ProductFacetSummary;
+import com.casejoin.productInventory.service.ProductService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "product.outbox.relay.enabled=false")
+class ProductFacetsTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductFacetSummary productFacetSummary;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	@Description("Should answer category and brand facets from the summary, without a query, as the database would")
+	void summaryFacetsTest() throws Exception {
+		String brand = "Facet " + UUID.randomUUID();
+		create(brand, Category.JEWELERY, "10.00");
+		create(brand, Category.JEWELERY, "75.00");
+		create(brand, Category.TOYS, "2000.00");
+		ProductFilterDto filter = new ProductFilterDto(null, null, brand, null, null, null, null);
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		long queries = statistics.getPrepareStatementCount();
+		ProductFacetsDto facets = productService.getFacets(filter);
+
+		assertEquals(queries, statistics.getPrepareStatementCount());
+		assertEquals(3, facets.total());
+		assertEquals(2, facets.categories().get(Category.JEWELERY));
+		assertEquals(1, facets.categories().get(Category.TOYS));
+		assertEquals(3, facets.brands().get(brand));
+		assertEquals(1, facets.prices().get(0).count());
+		assertEquals(1, facets.prices().get(1).count());
+		assertEquals(1, facets.prices().get(facets.prices().size() - 1).count());
+		assertNull(facets.prices().get(facets.prices().size() - 1).to());
+		assertEquals(database(filter), facets);
+	}
+
+	@Test
+	@Description("Should keep the summary in sync with updates and deletions")
+	void summaryMaintenanceTest() throws Exception {
+		String brand = "Facet " + UUID.randomUUID();
+		ProductDto moved = create(brand, Category.BOOKS, "10.00");
+		ProductDto deleted = create(brand, Category.BOOKS, "20.00");
+		ProductDto adjusted = create(brand, Category.BOOKS, "30.00");
+
+		productService.patchProduct(moved.id(), new ProductDto(null, null, null, null, Category.FOOD, null,
+				new BigDecimal("300.00"), null, null));
+		productService.deleteProduct(deleted.id());
+		productService.adjustStock(adjusted.id(), 5);
+
+		ProductFilterDto filter = new ProductFilterDto(null, null, brand, null, null, null, null);
+		ProductFacetsDto facets = productService.getFacets(filter);
+		assertEquals(2, facets.total());
+		assertEquals(1, facets.categories().get(Category.FOOD));
+		assertEquals(1, facets.categories().get(Category.BOOKS));
+		assertEquals(database(filter), facets);
+	}
+
+	@Test
+	@Description("Should compute facets of name and price filters with a grouped query")
+	void databaseFacetsTest() throws Exception {
+		String brand = "Facet " + UUID.randomUUID();
+		create(brand, Category.GAMES, "10.00");
+		create(brand, Category.GAMES, "600.00");
+		ProductFilterDto filter = new ProductFilterDto(null, null, brand, 10000L, null, null, null);
+
+		assertFalse(productFacetSummary.supports(filter));
+		ProductFacetsDto facets = productService.getFacets(filter);
+		assertEquals(1, facets.total());
+		assertEquals(1, facets.prices().get(4).count());
+	}
+
+	private ProductDto create(String brand, Category category, String price) throws Exception {
+		String name = "Facet Product " + UUID.randomUUID();
+		productService.createProduct(new ProductDto(null, name, null, brand, category, 1, new BigDecimal(price), null,
+				null));
+		return productRepository.findAllAsDto((root, query, builder) -> builder.equal(root.get("name"), name),
+				Pageable.unpaged()).get(0);
+	}
+
+	private ProductFacetsDto database(ProductFilterDto filter) {
+		return productFacetSummary.aggregate(productRepository.countFacets(
+				(root, query, builder) -> builder.like(root.get("brand"), filter.brand() + "%"),
+				productFacetSummary.getPriceBoundaries()));
+	}
+}
@@ -0,0 +1,98 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Description;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.casejoin.productInventory.dto.BulkImportResultDto;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductImportService;
+import com.casejoin.productInventory.service.ProductService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+class ProductImportServiceTests {
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private TransactionTemplate transactionTemplate;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Mock
+	private EntityManager entityManager;
+
+	private ProductImportService productImportService;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		MockitoAnnotations.openMocks(this);
+		doAnswer(invocation -> {
+			invocation.getArgument(0, Consumer.class).accept(null);
+			return null;
+		}).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+
+		productImportService = new ProductImportService(
+				new ProductService(productRepository, null, null, eventPublisher, null, null, null,
+						Duration.ofSeconds(2), new SimpleMeterRegistry()), productRepository,
+				transactionTemplate, entityManager, 2, 10);
+	}
+
+	private ProductDto product(String name) {
+		return new ProductDto(null, name, "Description", "Brand", Category.GAMES, 1, new BigDecimal("10.00"), null, null);
+	}
+
+	@Test
+	@Description("Should write valid rows in chunks and report invalid ones")
+	void importProductsInChunksTest() {
+		BulkImportResultDto result = productImportService.importProducts(List.of(product("A"), product(null),
+				product("B"), product("C")).iterator());
+
+		assertEquals(4, result.received());
+		assertEquals(3, result.imported());
+		assertEquals(1, result.failed());
+		assertEquals(2, result.errors().get(0).row());
+		verify(productRepository, times(2)).saveAll(anyList());
+		verify(productRepository, times(2)).flush();
+	}
+
+	@Test
+	@Description("Should report every row of a chunk that fails to be written")
+	void importProductsChunkFailureTest() {
+		doThrow(new DataIntegrityViolationException("constraint")).doReturn(List.of())
+				.when(productRepository).saveAll(anyList());
+
+		BulkImportResultDto result = productImportService.importProducts(List.of(product("A"), product("B"),
+				product("C")).iterator());
+
+		assertEquals(1, result.imported());
+		assertEquals(2, result.failed());
+		assertEquals(List.of(1L, 2L), result.errors().stream().map(error -> error.row()).toList());
+	}
+}
@@ -0,0 +1,81 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.casejoin.productInventory.dto.BulkImportResultDto;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductImportService;
+import com.casejoin.productInventory.service.ProductService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "product.outbox.relay.enabled=false")
+class ProductImportTests {
+
+	private static final int CHUNK_SIZE = 10;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	@Description("Should keep no imported product managed across chunks of a request-wide persistence context")
+	void boundedPersistenceContextTest() {
+		ProductImportService productImportService = new ProductImportService(productService, productRepository,
+				transactionTemplate, entityManager, CHUNK_SIZE, 100);
+
+		// Binds one persistence context to the whole import, as open-in-view does for a request
+		EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+		TransactionSynchronizationManager.bindResource(entityManagerFactory,
+				new EntityManagerHolder(requestEntityManager));
+		try {
+			AtomicInteger maxManaged = new AtomicInteger();
+			Iterator<ProductDto> products = IntStream.rangeClosed(1, 5 * CHUNK_SIZE + 5).mapToObj(i -> {
+				maxManaged.accumulateAndGet(managed(requestEntityManager), Math::max);
+				return new ProductDto(null, "Imported " + i, null, "Import Brand", Category.TOYS, i,
+						new BigDecimal("5.00"), null, null);
+			}).iterator();
+
+			BulkImportResultDto result = productImportService.importProducts(products);
+
+			assertEquals(5 * CHUNK_SIZE + 5, result.imported());
+			assertEquals(0, maxManaged.get());
+			assertEquals(0, managed(requestEntityManager));
+		} finally {
+			TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+			requestEntityManager.close();
+		}
+	}
+
+	private static int managed(EntityManager entityManager) {
+		return entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+	}
+}
@@ -0,0 +1,95 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.CustomNotFoundException;
+import com.casejoin.productInventory.service.ProductService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "product.outbox.relay.enabled=false")
+class ProductListCacheTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private String brand;
+
+	@BeforeEach
+	public void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		brand = "List Cache " + UUID.randomUUID();
+	}
+
+	@Test
+	@Description("Should serve equivalent filters from a single cached page, without a query")
+	void normalizedFilterTest() throws Exception {
+		productService.createProduct(product("Book", Category.BOOKS, "19.90"));
+
+		List<ProductDto> page = productService.getProducts(
+				new ProductFilterDto(null, Category.BOOKS, brand, 100L, 100000L, 1, 10));
+		long queries = statistics.getPrepareStatementCount();
+
+		assertEquals(page, productService.getProducts(
+				new ProductFilterDto(" ", Category.BOOKS, brand, 100L, 100000L, null, null)));
+		assertEquals(page, productService.getProducts(
+				new ProductFilterDto("", Category.BOOKS, brand, 100L, 100000L, 0, -1)));
+		assertEquals(queries, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	@Description("Should read again the pages of the categories a write changes, and only those")
+	void categoryGenerationTest() throws Exception {
+		productService.createProduct(product("Book", Category.BOOKS, "19.90"));
+		productService.createProduct(product("Game", Category.GAMES, "59.90"));
+		ProductFilterDto books = new ProductFilterDto(null, Category.BOOKS, brand, null, null, 1, 10);
+		ProductFilterDto games = new ProductFilterDto(null, Category.GAMES, brand, null, null, 1, 10);
+		ProductFilterDto all = new ProductFilterDto(null, null, brand, null, null, 1, 10);
+		UUID book = productService.getProducts(books).get(0).id();
+		productService.getProducts(games);
+		productService.getProducts(all);
+
+		productService.adjustStock(book, 5);
+		long queries = statistics.getPrepareStatementCount();
+		productService.getProducts(games);
+		assertEquals(queries, statistics.getPrepareStatementCount());
+		assertEquals(6, productService.getProducts(books).get(0).quantity());
+		assertEquals(6, productService.getProducts(all).stream().filter(product -> product.id().equals(book))
+				.findFirst().orElseThrow().quantity());
+
+		// Moving a product changes both categories
+		productService.patchProduct(book, new ProductDto(null, null, null, null, Category.GAMES, null, null, null,
+				null, null, null));
+		assertThrows(CustomNotFoundException.class, () -> productService.getProducts(books));
+		assertEquals(2, productService.getProducts(games).size());
+
+		productService.deleteProduct(book);
+		assertEquals(1, productService.getProducts(games).size());
+		assertEquals(1, productService.getProducts(all).size());
+	}
+
+	private ProductDto product(String name, Category category, String price) {
+		return new ProductDto(null, name, null, brand, category, 1, new BigDecimal(price), null, null);
+	}
+}
@@ -0,0 +1,76 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.CustomNotFoundException;
+import com.casejoin.productInventory.metrics.ProductMetricsAspect;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ProductMetricsTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	public void setUp() {
+		productRepository.save(Product.builder().name("Metrics Product").category(Category.FOOD).quantity(1)
+				.priceMinor(1000L).build());
+	}
+
+	@Test
+	@Description("Should time service and repository calls, tagged by method and active filters")
+	void serviceAndRepositoryTimersTest() throws CustomNotFoundException {
+		ProductFilterDto filter = new ProductFilterDto(null, Category.FOOD, null, 100L, 10000L, 1, 10);
+		long services = count(ProductMetricsAspect.SERVICE, "getProducts", "category,price");
+		long queries = count(ProductMetricsAspect.REPOSITORY, "findAllAsDto", "category,price");
+
+		productService.getProducts(filter);
+
+		assertEquals(services + 1, count(ProductMetricsAspect.SERVICE, "getProducts", "category,price"));
+		assertEquals(queries + 1, count(ProductMetricsAspect.REPOSITORY, "findAllAsDto", "category,price"));
+	}
+
+	@Test
+	@Description("Should tag failed calls with their exception")
+	void failedCallTimerTest() {
+		ProductFilterDto filter = new ProductFilterDto("no such product", null, null, null, null, 1, 10);
+
+		assertThrows(CustomNotFoundException.class, () -> productService.getProducts(filter));
+
+		assertNotNull(meterRegistry.find(ProductMetricsAspect.SERVICE).tag("method", "getProducts")
+				.tag("filters", "name").tag("error", "CustomNotFoundException").timer());
+	}
+
+	@Test
+	@Description("Should export the Hibernate statistics")
+	void hibernateStatisticsTest() {
+		assertNotNull(meterRegistry.find("hibernate.statements").functionCounter());
+	}
+
+	private long count(String name, String method, String filters) {
+		Timer timer = meterRegistry.find(name).tag("method", method).tag("filters", filters).timer();
+		return timer != null ? timer.count() : 0;
+	}
+}
@@ -0,0 +1,190 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Description;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.casejoin.productInventory.dto.ProductChangeDto;
+import com.casejoin.productInventory.dto.ProductChangesDto;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.dto.StockAdjustmentDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.enums.ChangeType;
+import com.casejoin.productInventory.exception.ChangesExpiredException;
+import com.casejoin.productInventory.exception.InsufficientStockException;
+import com.casejoin.productInventory.outbox.ProductChangeSink;
+import com.casejoin.productInventory.outbox.ProductOutbox;
+import com.casejoin.productInventory.outbox.ProductOutboxRelay;
+import com.casejoin.productInventory.service.ProductService;
+
+/**
+ * Runs on a database of its own, with the scheduled relay off, so that only
+ * the relay runs of the tests number the changes.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:outbox_tests;DB_CLOSE_DELAY=-1",
+		"product.outbox.relay.enabled=false" })
+@AutoConfigureMockMvc
+class ProductOutboxTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductOutbox productOutbox;
+
+	@Autowired
+	private ProductOutboxRelay productOutboxRelay;
+
+	@Autowired
+	private TestSink sink;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private long lastSequence;
+
+	@BeforeEach
+	public void setUp() {
+		sink.failures = 0;
+		productOutboxRelay.relay();
+		sink.batches.clear();
+		lastSequence = jdbcTemplate.queryForObject("SELECT last_seq FROM product_outbox_relay WHERE id = 1",
+				Long.class);
+	}
+
+	@Test
+	@Description("Should publish every committed change once, numbered in order, with the current product state")
+	void relayTest() throws Exception {
+		String brand = "Outbox " + UUID.randomUUID();
+		productService.createProduct(product(brand));
+		UUID id = productService.getProducts(new ProductFilterDto(null, null, brand, null, null, 1, 10)).get(0)
+				.id();
+		productService.patchProduct(id, new ProductDto(null, "Outbox Renamed", null, null, null, null, null, null,
+				null, null, null));
+		productService.adjustStock(id, 4);
+		// Rolled back, never published
+		assertThrows(InsufficientStockException.class,
+				() -> productService.adjustStock(List.of(new StockAdjustmentDto(id, -100))));
+
+		assertEquals(3, productOutboxRelay.relay());
+		assertEquals(1, sink.batches.size());
+		List<ProductChangeDto> changes = sink.batches.get(0);
+		assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.STOCK_ADJUSTED),
+				changes.stream().map(ProductChangeDto::type).toList());
+		for (int i = 0; i < changes.size(); i++) {
+			assertEquals(lastSequence + 1 + i, changes.get(i).sequence());
+			assertEquals(id, changes.get(i).productId());
+			assertEquals("Outbox Renamed", changes.get(i).product().name());
+			assertEquals(5, changes.get(i).product().quantity());
+		}
+
+		productService.deleteProduct(id);
+		assertEquals(1, productOutboxRelay.relay());
+		assertNull(sink.batches.get(1).get(0).product());
+		assertEquals(0, productOutboxRelay.relay());
+	}
+
+	@Test
+	@Description("Should publish a failed batch again with the same sequences")
+	void failedSinkTest() throws Exception {
+		productService.createProduct(product("Outbox " + UUID.randomUUID()));
+		sink.failures = 1;
+
+		assertEquals(0, productOutboxRelay.relay());
+		assertEquals(1, productOutboxRelay.relay());
+		assertEquals(2, sink.batches.size());
+		assertEquals(sink.batches.get(0), sink.batches.get(1));
+		assertEquals(lastSequence + 1, sink.batches.get(1).get(0).sequence());
+	}
+
+	@Test
+	@Description("Should serve the published changes following a sequence, and tell when they were purged")
+	void changeFeedTest() throws Exception {
+		productService.createProduct(product("Outbox " + UUID.randomUUID()));
+		productService.createProduct(product("Outbox " + UUID.randomUUID()));
+		assertEquals(lastSequence, productOutbox.changesSince(lastSequence, 10).lastSequence());
+
+		productOutboxRelay.relay();
+		ProductChangesDto first = productOutbox.changesSince(lastSequence, 1);
+		assertEquals(1, first.changes().size());
+		assertEquals(lastSequence + 1, first.lastSequence());
+		mockMvc.perform(get("/api/v1/product/changes").param("since", String.valueOf(first.lastSequence())))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.changes.length()").value(1))
+				.andExpect(jsonPath("$.data.lastSequence").value(lastSequence + 2));
+
+		productOutbox.purge(LocalDateTime.now().plusMinutes(1));
+		assertThrows(ChangesExpiredException.class, () -> productOutbox.changesSince(lastSequence, 10));
+		mockMvc.perform(get("/api/v1/product/changes").param("since", String.valueOf(lastSequence)))
+				.andExpect(status().isGone())
+				.andExpect(header().string(ChangesExpiredException.LAST_SEQUENCE_HEADER,
+						String.valueOf(lastSequence + 2)));
+		assertNotNull(productOutbox.changesSince(lastSequence + 2, 10));
+
+		// A new consumer starts from the oldest retained change
+		productService.createProduct(product("Outbox " + UUID.randomUUID()));
+		productOutboxRelay.relay();
+		ProductChangesDto bootstrap = productOutbox.changesSince(0, 10);
+		assertEquals(lastSequence + 3, bootstrap.changes().get(0).sequence());
+		mockMvc.perform(get("/api/v1/product/changes").param("since", "0")).andExpect(status().isOk());
+	}
+
+	private static ProductDto product(String brand) {
+		return new ProductDto(null, "Outbox Product", null, brand, Category.FOOD, 1, new BigDecimal("9.90"), null,
+				null);
+	}
+
+	@TestConfiguration
+	static class TestSinkConfiguration {
+
+		@Bean
+		TestSink testSink() {
+			return new TestSink();
+		}
+	}
+
+	/**
+	 * Keeps the published batches, failing as many times as asked first.
+	 */
+	static class TestSink implements ProductChangeSink {
+
+		private final List<List<ProductChangeDto>> batches = new CopyOnWriteArrayList<>();
+		private volatile int failures;
+
+		@Override
+		public void publish(List<ProductChangeDto> changes) throws Exception {
+			batches.add(changes);
+			if (failures > 0) {
+				failures--;
+				throw new Exception("Sink unavailable");
+			}
+		}
+	}
+}
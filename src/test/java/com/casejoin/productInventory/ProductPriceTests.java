@@ -0,0 +1,119 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
+import com.casejoin.productInventory.model.Money;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductPriceTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	private String brand;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		brand = "Price " + UUID.randomUUID();
+		for (String price : List.of("19.99", "20.00", "20.01")) {
+			productService.createProduct(new ProductDto(null, "Price Product " + price, null, brand, Category.TOYS, 1,
+					new BigDecimal(price), null, null));
+		}
+	}
+
+	@Test
+	@Description("Should store prices as exact minor units and filter ranges without rounding errors")
+	void exactRangeFilterTest() throws Exception {
+		List<ProductDto> products = productService.getProducts(
+				new ProductFilterDto(null, null, brand, 2000L, 2000L, 1, 10));
+
+		assertEquals(1, products.size());
+		assertEquals(new BigDecimal("20.00"), products.get(0).price());
+		assertEquals(Money.DEFAULT_CURRENCY, products.get(0).currency());
+		assertEquals(2000L, productRepository.findById(products.get(0).id()).orElseThrow().getPriceMinor());
+	}
+
+	@Test
+	@Description("Should list products of every currency when no price bound is given")
+	void otherCurrencyListTest() throws Exception {
+		productService.createProduct(new ProductDto(null, "Price Product USD", null, brand, Category.TOYS, 1,
+				new BigDecimal("20.00"), "USD", null, null, null));
+
+		mockMvc.perform(get("/api/v1/product").param("brand", brand))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.data.length()").value(4))
+				.andExpect(jsonPath("$.data[?(@.currency == 'USD')].name").value("Price Product USD"));
+		// Price bounds are in the default currency, which the USD product does not compare with
+		mockMvc.perform(get("/api/v1/product").param("brand", brand).param("minPrice", "0"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.data.length()").value(3));
+	}
+
+	@Test
+	@Description("Should parse the price filters in the notation of the request locale, once, at the binder")
+	void localeAwareFilterTest() throws Exception {
+		mockMvc.perform(get("/api/v1/product").param("brand", brand).param("minPrice", "19,995")
+				.param("maxPrice", "20,01").header(HttpHeaders.ACCEPT_LANGUAGE, "pt-BR"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.data.length()").value(2));
+		mockMvc.perform(get("/api/v1/product").param("brand", brand).param("minPrice", "19.99")
+				.param("maxPrice", "20").header(HttpHeaders.ACCEPT_LANGUAGE, "en"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.data.length()").value(2));
+		mockMvc.perform(get("/api/v1/product").param("brand", brand).param("minPrice", "19,99")
+				.header(HttpHeaders.ACCEPT_LANGUAGE, "en"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@Description("Should reject prices with more decimals than their currency, and currencies without a price")
+	void invalidPriceTest() throws Exception {
+		assertThrows(InvalidArgumentException.class, () -> productService.createProduct(new ProductDto(null,
+				"Invalid Price", null, brand, Category.TOYS, 1, new BigDecimal("1.001"), null, null)));
+		assertThrows(InvalidArgumentException.class, () -> productService.createProduct(new ProductDto(null,
+				"Invalid Price", null, brand, Category.TOYS, 1, new BigDecimal("1"), "XXXX", null, null, null)));
+
+		Product product = productRepository.save(Product.builder().name("Yen Product").brand(brand)
+				.category(Category.TOYS).priceMinor(2000L).build());
+		assertThrows(InvalidArgumentException.class, () -> productService.patchProduct(product.getId(),
+				new ProductDto(null, null, null, null, null, null, null, "JPY", null, null, null)));
+
+		productService.patchProduct(product.getId(), new ProductDto(null, null, null, null, null, null,
+				new BigDecimal("2000"), "JPY", null, null, null));
+		Product updated = productRepository.findById(product.getId()).orElseThrow();
+		assertEquals(2000L, updated.getPriceMinor());
+		assertEquals("JPY", updated.getCurrency());
+		assertEquals(new BigDecimal("2000"), ProductService.toDto(updated).price());
+
+		// Price filters are in the default currency
+		assertEquals(1, productService.getProducts(new ProductFilterDto(null, null, brand, 2000L, 2000L, 1, 10))
+				.size());
+	}
+}
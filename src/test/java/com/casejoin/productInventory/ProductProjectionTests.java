@@ -0,0 +1,74 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.service.ProductService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Checks with Hibernate statistics that list pages are read as DTOs. The list
+ * cache is off so that every page is read from the database, and the outbox
+ * relay is off so that only the reads of the tests are counted.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"product.list-cache.enabled=false",
+		"product.outbox.relay.enabled=false" })
+class ProductProjectionTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private String brand;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		brand = "Projection " + UUID.randomUUID();
+		for (int i = 0; i < 3; i++) {
+			productService.createProduct(new ProductDto(null, "Projection " + i, null, brand, Category.GAMES, i,
+					new BigDecimal("12.00"), null, null));
+		}
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	@Description("Should read a list page with a single query and without loading any entity")
+	void listLoadsNoEntityTest() throws Exception {
+		assertEquals(3, productService.getProducts(new ProductFilterDto(null, null, brand, null, null, 1, 10)).size());
+
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getEntityFetchCount());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	@Description("Should read a cursor window without loading any entity")
+	void windowLoadsNoEntityTest() throws Exception {
+		assertEquals(2, productService.getProductsAfter(new ProductFilterDto(null, null, brand, null, null, 1, 2), null)
+				.products().size());
+
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+}
@@ -0,0 +1,203 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Description;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.casejoin.productInventory.datasource.ReadYourWrites;
+import com.casejoin.productInventory.datasource.ReplicaMonitor;
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.CustomNotFoundException;
+import com.casejoin.productInventory.filter.ReadYourWritesFilter;
+import com.casejoin.productInventory.service.ProductService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Runs against two H2 databases that do not replicate, so a product only
+ * found in one of them tells which one served the read.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=" + ProductReplicaRoutingTests.PRIMARY_URL,
+		"product.datasource.replica.urls=" + ProductReplicaRoutingTests.REPLICA_URL,
+		"product.datasource.replica.migrate=true",
+		"product.datasource.replica.check-interval=1h",
+		"product.datasource.replica.max-lag=10s",
+		"product.datasource.replica.read-your-writes=10s",
+		"product.list-cache.enabled=false" })
+@AutoConfigureMockMvc
+class ProductReplicaRoutingTests {
+
+	static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1";
+	static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ReplicaMonitor replicaMonitor;
+
+	@Autowired
+	private ReadYourWrites readYourWrites;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+	private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+	@BeforeEach
+	public void setUp() {
+		readYourWrites.end();
+		cacheManager.getCache(ProductService.PRODUCT_CACHE).clear();
+		replicaMonitor.check();
+		replicateHeartbeat();
+		replicaMonitor.check();
+	}
+
+	@Test
+	@Description("Should send read-only service methods to the replica and writes to the primary")
+	void routingTest() throws Exception {
+		String name = "Replica Product " + UUID.randomUUID();
+		insert(replica, name);
+		double routed = routed("replica-0");
+
+		assertEquals(name, window(name).get(0).name());
+		assertEquals(routed + 1, routed("replica-0"));
+
+		String brand = "Routing " + UUID.randomUUID();
+		productService.createProduct(product(brand));
+		assertEquals(1, count(primary, brand));
+		assertEquals(0, count(replica, brand));
+
+		// Read-your-writes within the same thread, until the session ends
+		assertEquals(1, productService.getProducts(filter(brand)).size());
+		readYourWrites.end();
+		assertThrows(CustomNotFoundException.class, () -> productService.getProducts(filter(brand)));
+	}
+
+	@Test
+	@Description("Should read the products it caches from the primary, so that no client is served a lagging copy")
+	void cachedReadsTest() throws Exception {
+		String name = "Primary Product " + UUID.randomUUID();
+		UUID id = insert(primary, name);
+		insert(replica, id, "Stale Product");
+
+		assertEquals(name, productService.getProduct(id).name());
+		cacheManager.getCache(ProductService.PRODUCT_CACHE).clear();
+		assertEquals(name, productService.getProductsByIds(List.of(id)).found().get(id).name());
+
+		// Reads that are not cached still go to the replica
+		assertEquals("Stale Product", productService.getProductsAfter(
+				new ProductFilterDto("Stale Product", null, null, null, null, 1, 10), null).products().get(0).name());
+	}
+
+	@Test
+	@Description("Should keep reading from the primary after a write of the same client, through a cookie")
+	void readYourWritesTest() throws Exception {
+		String brand = "Routing " + UUID.randomUUID();
+		Cookie cookie = mockMvc.perform(post("/api/v1/product").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"Routing Product\",\"brand\":\"" + brand + "\",\"category\":\"TOYS\","
+						+ "\"quantity\":1,\"price\":10.00}"))
+				.andExpect(status().isOk()).andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+		assertNotNull(cookie);
+
+		mockMvc.perform(get("/api/v1/product").param("brand", brand).cookie(cookie)).andExpect(status().isOk());
+		mockMvc.perform(get("/api/v1/product").param("brand", brand)).andExpect(status().isNotFound());
+	}
+
+	@Test
+	@Description("Should skip a lagging replica, report its lag and health, and use it again once it catches up")
+	void laggingReplicaTest() throws Exception {
+		String name = "Primary Product " + UUID.randomUUID();
+		insert(primary, name);
+		replica.update("UPDATE replica_heartbeat SET beat = beat - 60000 WHERE id = 1");
+		replicaMonitor.check();
+
+		assertFalse(replicaMonitor.isHealthy("replica-0"));
+		assertTrue(meterRegistry.get("product.datasource.lag").tag("target", "replica-0").gauge().value() >= 60);
+		assertEquals(0, meterRegistry.get("product.datasource.healthy").tag("target", "replica-0").gauge().value());
+		assertEquals(Status.UP, replicaMonitor.health().getStatus());
+		assertEquals(name, window(name).get(0).name());
+
+		replicateHeartbeat();
+		replicaMonitor.check();
+
+		assertTrue(replicaMonitor.isHealthy("replica-0"));
+		assertTrue(meterRegistry.get("product.datasource.lag").tag("target", "replica-0").gauge().value() < 10);
+		assertThrows(CustomNotFoundException.class, () -> window(name));
+	}
+
+	private void replicateHeartbeat() {
+		replica.update("UPDATE replica_heartbeat SET beat = ? WHERE id = 1",
+				primary.queryForObject("SELECT beat FROM replica_heartbeat WHERE id = 1", Long.class));
+	}
+
+	private double routed(String target) {
+		return meterRegistry.get("product.datasource.routed").tag("target", target).counter().count();
+	}
+
+	private static UUID insert(JdbcTemplate database, String name) {
+		UUID id = UUID.randomUUID();
+		insert(database, id, name);
+		return id;
+	}
+
+	private static void insert(JdbcTemplate database, UUID id, String name) {
+		database.update("INSERT INTO product (id, name, category, quantity, price_minor, created_at) "
+				+ "VALUES (?, ?, 'TOYS', 1, 1000, LOCALTIMESTAMP)", id, name);
+	}
+
+	/**
+	 * Reads the products named after a text through a cursor window, which is
+	 * not cached.
+	 */
+	private List<ProductDto> window(String name) throws Exception {
+		return productService.getProductsAfter(new ProductFilterDto(name, null, null, null, null, 1, 10), null)
+				.products();
+	}
+
+	private static int count(JdbcTemplate database, String brand) {
+		return database.queryForObject("SELECT COUNT(*) FROM product WHERE brand = ?", Integer.class, brand);
+	}
+
+	private static ProductDto product(String brand) {
+		return new ProductDto(null, "Routing Product", null, brand, Category.TOYS, 1, new BigDecimal("10.00"), null,
+				null);
+	}
+
+	private static ProductFilterDto filter(String brand) {
+		return new ProductFilterDto(null, null, brand, null, null, 1, 10);
+	}
+}
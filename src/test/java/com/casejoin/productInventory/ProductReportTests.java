@@ -0,0 +1,96 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.dto.ProductReportDto;
+import com.casejoin.productInventory.dto.ProductStatsDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.enums.ReportGroup;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductReportService;
+import com.casejoin.productInventory.service.ProductService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ProductReportTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductReportService productReportService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	@Description("Should compute counts, stock value and price percentiles by category")
+	void statsTest() throws Exception {
+		String brand = "Report " + UUID.randomUUID();
+		for (int i = 1; i <= 20; i++) {
+			productService.createProduct(new ProductDto(null, "Report " + i, null, brand,
+					i % 2 == 1 ? Category.BOOKS : Category.GAMES, i, new BigDecimal(i), null, null));
+		}
+		productService.createProduct(new ProductDto(null, "Imported", null, brand, Category.BOOKS, 7,
+				new BigDecimal("99.99"), "USD", null, null, null));
+
+		ProductReportDto report = productReportService.getReport(
+				new ProductFilterDto(null, null, brand, null, null, null, null), ReportGroup.CATEGORY, 5);
+
+		// Prices in another currency are counted, but not priced
+		ProductStatsDto books = report.groups().get(Category.BOOKS.name());
+		assertEquals(11, books.count());
+		assertEquals(107, books.quantity());
+		assertEquals(3, books.lowStock());
+		assertEquals(new BigDecimal("1330.00"), books.stockValue());
+		assertEquals(new BigDecimal("1.00"), books.minPrice());
+		assertEquals(new BigDecimal("19.00"), books.maxPrice());
+		assertEquals(new BigDecimal("9.00"), books.medianPrice());
+		assertEquals(new BigDecimal("17.00"), books.p90Price());
+		assertEquals(new BigDecimal("19.00"), books.p99Price());
+
+		assertEquals(List.of(Category.BOOKS.name(), Category.GAMES.name()), List.copyOf(report.groups().keySet()));
+		assertEquals(21, report.total().count());
+		assertEquals(new BigDecimal("10.00"), report.total().medianPrice());
+
+		ProductReportDto none = productReportService.getReport(
+				new ProductFilterDto(null, null, brand, 100000L, null, null, null), ReportGroup.BRAND, 5);
+		assertEquals(0, none.total().count());
+		assertNull(none.total().medianPrice());
+	}
+
+	@Test
+	@Description("Should compute the same report whatever the number of workers and ranges")
+	void rangesTest() throws Exception {
+		for (int i = 0; i < 50; i++) {
+			productService.createProduct(new ProductDto(null, "Ranged " + i, null, "Ranged " + i % 5,
+					Category.values()[i % Category.values().length], i, new BigDecimal(i + 1), null, null));
+		}
+
+		ProductReportService sequential = new ProductReportService(productService, productRepository,
+				transactionManager, 1, 1, 10);
+		try {
+			for (ReportGroup groupBy : ReportGroup.values()) {
+				ProductFilterDto all = new ProductFilterDto();
+				assertEquals(sequential.getReport(all, groupBy, 10), productReportService.getReport(all, groupBy, 10));
+			}
+		} finally {
+			sequential.destroy();
+		}
+	}
+}
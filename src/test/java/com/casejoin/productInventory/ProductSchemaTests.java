@@ -0,0 +1,92 @@
+package com.casejoin.productInventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.service.ProductService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+				+ "com.casejoin.productInventory.ProductSchemaTests$RecordingStatementInspector",
+		"product.list-cache.enabled=false",
+		"product.outbox.relay.enabled=false" })
+class ProductSchemaTests {
+
+	/** Records the SQL Hibernate prepares, to explain the queries it really runs. */
+	public static class RecordingStatementInspector implements StatementInspector {
+
+		static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql);
+			return sql;
+		}
+	}
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ProductService productService;
+
+	private String explain(String sql) {
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+	}
+
+	@Test
+	@Description("Should filter category pages through the (category, price_minor) index")
+	void categoryPriceFilterUsesIndexTest() {
+		assertThat(explain("SELECT p.id FROM product p WHERE p.category = 'GAMES' AND p.price_minor >= 100"
+				+ " AND p.price_minor <= 100000")).contains("IDX_PRODUCT_CATEGORY_PRICE_MINOR");
+	}
+
+	@Test
+	@Description("Should look up brands through the brand index")
+	void brandFilterUsesIndexTest() throws Exception {
+		String brand = "Schema " + UUID.randomUUID();
+		productService.createProduct(new ProductDto(null, "Schema Product", null, brand, Category.GAMES, 1,
+				new BigDecimal("10.00"), null, null));
+		RecordingStatementInspector.STATEMENTS.clear();
+		productService.getProducts(new ProductFilterDto(null, null, brand, null, null, 1, 10));
+		String sql = RecordingStatementInspector.STATEMENTS.stream()
+				.filter(statement -> statement.contains(" like "))
+				.findFirst().orElseThrow();
+
+		assertThat(jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, bindings(sql, brand + "%")).toUpperCase())
+				.contains("IDX_PRODUCT_BRAND");
+	}
+
+	/** Binds the pattern to the first parameter of a statement, and the page size to the others. */
+	private static Object[] bindings(String sql, String pattern) {
+		Object[] bindings = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+		Arrays.fill(bindings, 10);
+		bindings[0] = pattern;
+		return bindings;
+	}
+
+	@Test
+	@Description("Should read cursor pages in index order, without sorting")
+	void cursorPaginationUsesIndexTest() {
+		String plan = explain("SELECT p.id FROM product p WHERE p.created_at > TIMESTAMP '2025-01-01 00:00:00'"
+				+ " OR (p.created_at = TIMESTAMP '2025-01-01 00:00:00' AND p.id > RANDOM_UUID())"
+				+ " ORDER BY p.created_at, p.id FETCH FIRST 11 ROWS ONLY");
+
+		assertThat(plan).contains("IDX_PRODUCT_CREATED_AT_ID").contains("INDEX SORTED");
+	}
+}
@@ -0,0 +1,96 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.annotation.Description;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.enums.ChangeType;
+import com.casejoin.productInventory.event.ProductChangedEvent;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.search.ProductSearchIndex;
+
+class ProductSearchIndexTests {
+
+	@Mock
+	private ProductRepository productRepository;
+
+	private ProductSearchIndex productSearchIndex;
+
+	private ProductDto notebook;
+	private ProductDto mouse;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		MockitoAnnotations.openMocks(this);
+		productSearchIndex = new ProductSearchIndex(productRepository, "");
+
+		notebook = index(new ProductDto(UUID.randomUUID(), "Notebook Gamer", "Placa de vídeo dedicada", "Acer",
+				Category.TECHNOLOGY, 1, new BigDecimal("500.00"), null, null));
+		mouse = index(new ProductDto(UUID.randomUUID(), "Mouse", "Mouse para jogos", "Gamer Brand",
+				Category.ELECTRONICS, 1, new BigDecimal("50.00"), null, null));
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		productSearchIndex.destroy();
+	}
+
+	private ProductDto index(ProductDto product) {
+		productSearchIndex.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, product.id(), product));
+		return product;
+	}
+
+	@Test
+	@Description("Should rank name matches above brand matches and match word prefixes")
+	void searchRankingTest() {
+		assertEquals(List.of(notebook.id(), mouse.id()),
+				productSearchIndex.search("gam", new ProductFilterDto(), 0, 10));
+		assertEquals(List.of(notebook.id()), productSearchIndex.search("VIDEO", new ProductFilterDto(), 0, 10));
+	}
+
+	@Test
+	@Description("Should apply the category and price filters")
+	void searchFiltersTest() {
+		assertEquals(List.of(mouse.id()), productSearchIndex.search("gamer",
+				new ProductFilterDto(null, Category.ELECTRONICS, null, null, null, 1, 10), 0, 10));
+		assertEquals(List.of(notebook.id()), productSearchIndex.search("gamer",
+				new ProductFilterDto(null, null, null, 10000L, 100000L, 1, 10), 0, 10));
+	}
+
+	@Test
+	@Description("Should stop returning deleted products")
+	void searchAfterDeleteTest() {
+		productSearchIndex.onProductChanged(new ProductChangedEvent(ChangeType.DELETED, notebook.id(), null));
+
+		assertTrue(productSearchIndex.search("notebook", new ProductFilterDto(), 0, 10).isEmpty());
+	}
+
+	@Test
+	@Description("Should re-read a product updated in place and index its new state")
+	void searchAfterInPlaceUpdateTest() {
+		ProductDto renamed = new ProductDto(mouse.id(), "Teclado", "Teclado mecânico", "Gamer Brand",
+				Category.ELECTRONICS, 1, new BigDecimal("50.00"), null, null);
+		when(productRepository.findAllAsDto(any(), any())).thenReturn(List.of(renamed));
+
+		productSearchIndex.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, mouse.id(), null));
+
+		assertEquals(List.of(mouse.id()), productSearchIndex.search("teclado", new ProductFilterDto(), 0, 10));
+		assertTrue(productSearchIndex.search("mouse", new ProductFilterDto(), 0, 10).isEmpty());
+	}
+}
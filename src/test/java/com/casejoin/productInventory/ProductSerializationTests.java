@@ -0,0 +1,129 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Description;
+import org.springframework.http.HttpHeaders;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Reads list pages over HTTP, so compression applied by the server shows.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ProductSerializationTests {
+
+	private static final int PAGE_SIZE = 30;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final HttpClient httpClient = HttpClient.newHttpClient();
+
+	private String brand;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		brand = "Serialization" + UUID.randomUUID().toString().replace("-", "");
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			productService.createProduct(new ProductDto(null, "Serialization Product " + i, "Description " + i, brand,
+					Category.BOOKS, i, new BigDecimal("19.90"), null, null));
+		}
+	}
+
+	@Test
+	@Description("Should gzip responses over the size threshold for clients accepting it, and only those")
+	void compressionTest() throws Exception {
+		HttpResponse<byte[]> page = get("pageSize=" + PAGE_SIZE, "application/json", "gzip");
+		assertEquals(Optional.of("gzip"), page.headers().firstValue(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(PAGE_SIZE, objectMapper.readTree(gunzip(page.body())).get("data").size());
+
+		HttpResponse<byte[]> small = get("pageSize=1", "application/json", "gzip");
+		assertTrue(small.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+		assertEquals(PAGE_SIZE, objectMapper.readTree(get("pageSize=" + PAGE_SIZE, "application/json", "identity")
+				.body()).get("data").size());
+	}
+
+	@Test
+	@Description("Should only serialize the requested product fields")
+	void sparseFieldsetTest() throws Exception {
+		JsonNode response = objectMapper.readTree(get("pageSize=" + PAGE_SIZE + "&fields=id,name,price,unknown",
+				"application/json", "identity").body());
+
+		assertEquals(200, response.get("statusCode").asInt());
+		for (JsonNode product : response.get("data")) {
+			assertEquals(List.of("id", "name", "price"), fieldNames(product));
+		}
+		assertEquals(19.9, response.get("data").get(0).get("price").doubleValue());
+	}
+
+	@Test
+	@Description("Should serve CBOR to clients asking for it, with sparse fieldsets too")
+	void cborTest() throws Exception {
+		HttpResponse<byte[]> json = get("pageSize=" + PAGE_SIZE, "application/json", "identity");
+		HttpResponse<byte[]> cbor = get("pageSize=" + PAGE_SIZE, "application/cbor", "identity");
+
+		assertEquals(Optional.of("application/cbor"), cbor.headers().firstValue(HttpHeaders.CONTENT_TYPE));
+		assertTrue(cbor.body().length < json.body().length);
+		ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+		assertEquals(objectMapper.readTree(json.body()).get("data").get(0).get("name").asText(),
+				cborMapper.readTree(cbor.body()).get("data").get(0).get("name").asText());
+
+		JsonNode sparse = cborMapper.readTree(get("pageSize=" + PAGE_SIZE + "&fields=id", "application/cbor",
+				"identity").body());
+		assertEquals(List.of("id"), fieldNames(sparse.get("data").get(0)));
+	}
+
+	private HttpResponse<byte[]> get(String query, String accept, String acceptEncoding)
+			throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+				+ "/api/v1/product?brand=" + brand + "&" + query))
+				.header(HttpHeaders.ACCEPT, accept).header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding).build();
+		HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+		assertEquals(200, response.statusCode());
+		return response;
+	}
+
+	private static byte[] gunzip(byte[] body) throws IOException {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			return in.readAllBytes();
+		}
+	}
+
+	private static List<String> fieldNames(JsonNode node) {
+		List<String> names = new ArrayList<>();
+		node.fieldNames().forEachRemaining(names::add);
+		return names;
+	}
+}
@@ -7,30 +7,46 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Description;
 
 import com.casejoin.productInventory.dto.ProductDto;
 import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.event.ProductChangedEvent;
 import com.casejoin.productInventory.exception.CustomNotFoundException;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
 import com.casejoin.productInventory.exception.RequiredArgumentsMissing;
 import com.casejoin.productInventory.model.Product;
 import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.search.ProductFacetSummary;
+import com.casejoin.productInventory.search.ProductSearchIndex;
 import com.casejoin.productInventory.service.ProductService;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class ProductServiceTests {
 
 	@Mock
 	private ProductRepository productRepository;
 
-	@InjectMocks
+	@Mock
+	private ProductSearchIndex productSearchIndex;
+
+	@Mock
+	private ProductFacetSummary productFacetSummary;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
 	private ProductService productService;
 
 	private Product product;
@@ -38,18 +54,21 @@ class ProductServiceTests {
 	@BeforeEach
 	public void setUp() {
 		MockitoAnnotations.openMocks(this);
-		product = new Product(UUID.randomUUID(), "Test Product", "Description", "Brand", Category.GAMES, 1, 500.0, null,
-				null);
+		productService = new ProductService(productRepository, productSearchIndex, productFacetSummary, eventPublisher,
+				new ConcurrentMapCacheManager(), null, null, Duration.ofSeconds(2), new SimpleMeterRegistry());
+		product = new Product(UUID.randomUUID(), "Test Product", "Description", "Brand", Category.GAMES, 1, 50000L,
+				"BRL", null, null, null);
 	}
 
 	@Test
 	@Description("Should create a new product")
-	public void createProductTest() throws RequiredArgumentsMissing {
+	public void createProductTest() throws RequiredArgumentsMissing, InvalidArgumentException {
 		productService.createProduct(new ProductDto(null, product.getName(), product.getDescription(),
-				product.getBrand(), product.getCategory(), product.getQuantity(), product.getPrice(),
+				product.getBrand(), product.getCategory(), product.getQuantity(), ProductService.toDto(product).price(),
 				null, null));
 
 		verify(productRepository, times(1)).save(any(Product.class));
+		verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
 	}
 
 	@Test
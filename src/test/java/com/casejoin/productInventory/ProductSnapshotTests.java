@@ -0,0 +1,163 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Description;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.ProductFilterDto;
+import com.casejoin.productInventory.dto.ProductWindowDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.CustomNotFoundException;
+import com.casejoin.productInventory.search.ProductSnapshot;
+import com.casejoin.productInventory.service.ProductImportService;
+import com.casejoin.productInventory.service.ProductService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Runs on a database of its own, with the list cache off, so that every page
+ * is read from the snapshot, and the outbox relay off, so that only the reads
+ * of the tests are counted.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"spring.datasource.url=jdbc:h2:mem:snapshot_tests;DB_CLOSE_DELAY=-1",
+		"product.snapshot.enabled=true",
+		"product.list-cache.enabled=false",
+		"product.outbox.relay.enabled=false" })
+class ProductSnapshotTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductSnapshot productSnapshot;
+
+	@Autowired
+	private ProductImportService productImportService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private String brand;
+
+	@BeforeEach
+	public void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		brand = "Snapshot " + UUID.randomUUID();
+	}
+
+	@Test
+	@Description("Should list the same pages as the database, in creation order, without a query")
+	void sameResultsTest() throws Exception {
+		Category[] categories = { Category.BOOKS, Category.GAMES, Category.FOOD };
+		for (int i = 0; i < 30; i++) {
+			productService.createProduct(new ProductDto(null, i % 2 == 0 ? "Even " + i : "Odd " + i, null,
+					brand + (i % 3 == 0 ? " Plus" : ""), categories[i % 3], i, new BigDecimal(10 + i),
+					i % 10 == 0 ? "USD" : null, null, null, null));
+		}
+		productSnapshot.rebuild();
+		assertTrue(productSnapshot.isReady());
+
+		List<ProductFilterDto> filters = List.of(
+				new ProductFilterDto(null, null, brand, null, null, 1, 7),
+				new ProductFilterDto(null, null, brand + " Plus", null, null, 1, 7),
+				new ProductFilterDto("Even", Category.BOOKS, brand, null, null, 1, 7),
+				new ProductFilterDto(null, Category.GAMES, brand, 1500L, 3000L, 1, 7),
+				new ProductFilterDto("1", null, brand, null, 3500L, 1, 7),
+				new ProductFilterDto(null, null, "Snapshot", 2000L, null, 1, 7));
+		for (ProductFilterDto filter : filters) {
+			List<ProductDto> expected = new ArrayList<>();
+			ProductWindowDto window = productService.getProductsAfter(filter, null);
+			expected.addAll(window.products());
+			while (window.nextCursor() != null) {
+				window = productService.getProductsAfter(filter, window.nextCursor());
+				expected.addAll(window.products());
+			}
+
+			long queries = statistics.getPrepareStatementCount();
+			List<ProductDto> actual = new ArrayList<>();
+			for (int page = 1; page <= (expected.size() + 6) / 7; page++) {
+				actual.addAll(productService.getProducts(new ProductFilterDto(filter.name(), filter.category(),
+						filter.brand(), filter.minPrice(), filter.maxPrice(), page, 7)));
+			}
+			assertEquals(expected, actual, filter.toString());
+			assertEquals(queries, statistics.getPrepareStatementCount());
+		}
+	}
+
+	@Test
+	@Description("Should apply every committed change to the snapshot")
+	void changesTest() throws Exception {
+		productService.createProduct(new ProductDto(null, "Book", null, brand, Category.BOOKS, 1,
+				new BigDecimal("19.90"), null, null));
+		ProductFilterDto books = new ProductFilterDto(null, Category.BOOKS, brand, null, null, 1, 10);
+		ProductFilterDto games = new ProductFilterDto(null, Category.GAMES, brand, null, null, 1, 10);
+		UUID id = productService.getProducts(books).get(0).id();
+
+		productService.adjustStock(id, 5);
+		assertEquals(6, productService.getProducts(books).get(0).quantity());
+
+		productService.patchProduct(id, new ProductDto(null, null, null, null, Category.GAMES, null,
+				new BigDecimal("5.00"), null, null, null, null));
+		assertEquals(productService.getProduct(id), productService.getProducts(games).get(0));
+		assertFalse(productService.getProducts(new ProductFilterDto(null, null, brand, 100L, 500L, 1, 10))
+				.isEmpty());
+		assertEquals(List.of(), productSnapshot.find(books));
+
+		int size = productSnapshot.size();
+		productService.deleteProduct(id);
+		assertEquals(size - 1, productSnapshot.size());
+		assertThrows(CustomNotFoundException.class, () -> productService.getProducts(games));
+	}
+
+	@Test
+	@Description("Should match % and _ in names literally, with and without the snapshot")
+	void literalNameTest() throws Exception {
+		for (String name : List.of("50% off", "500 off", "a_b", "axb")) {
+			productService.createProduct(new ProductDto(null, name, null, brand, Category.TOYS, 1,
+					new BigDecimal("1.00"), null, null));
+		}
+
+		for (String name : List.of("50%", "a_b")) {
+			ProductFilterDto filter = new ProductFilterDto(name, null, brand, null, null, 1, 10);
+			List<ProductDto> expected = productService.getProductsAfter(filter, null).products();
+			assertEquals(1, expected.size(), name);
+			assertEquals(expected, productService.getProducts(filter), name);
+		}
+	}
+
+	@Test
+	@Description("Should read the products of an import chunk again with a single query")
+	void importTest() throws Exception {
+		List<ProductDto> products = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			products.add(new ProductDto(null, "Imported " + i, null, brand, Category.FOOD, i,
+					new BigDecimal("2.00"), null, null));
+		}
+		int size = productSnapshot.size();
+
+		statistics.clear();
+		productImportService.importProducts(products.iterator());
+
+		assertEquals(1, statistics.getQueryExecutionCount());
+		assertEquals(size + 50, productSnapshot.size());
+		assertEquals(50, productSnapshot.find(new ProductFilterDto(null, null, brand, null, null, 1, 100)).size());
+	}
+}
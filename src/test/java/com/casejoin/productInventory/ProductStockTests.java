@@ -0,0 +1,169 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Description;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.dto.StockAdjustmentDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.InsufficientStockException;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ProductStockTests {
+
+	private static final int THREADS = 8;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	@Description("Should apply every concurrent stock adjustment, without lost updates")
+	void concurrentAdjustmentsTest() throws Exception {
+		Product product = product(1000);
+		int adjustmentsPerThread = 250;
+
+		AtomicInteger applied = new AtomicInteger();
+		runConcurrently(THREADS, thread -> {
+			for (int i = 0; i < adjustmentsPerThread; i++) {
+				// +2, -1, +2, -1... nets +1 every two adjustments
+				productService.adjustStock(product.getId(), i % 2 == 0 ? 2 : -1);
+				applied.incrementAndGet();
+			}
+			return null;
+		});
+
+		Product adjusted = productRepository.findById(product.getId()).orElseThrow();
+		assertEquals(THREADS * adjustmentsPerThread, applied.get());
+		assertEquals(1000 + THREADS * adjustmentsPerThread / 2, adjusted.getQuantity());
+		assertEquals(THREADS * adjustmentsPerThread, adjusted.getVersion());
+	}
+
+	@Test
+	@Description("Should never sell more stock than available under concurrent decrements")
+	void noOversellTest() throws Exception {
+		Product product = product(50);
+
+		AtomicInteger sold = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		runConcurrently(THREADS, thread -> {
+			for (int i = 0; i < 25; i++) {
+				try {
+					productService.adjustStock(product.getId(), -1);
+					sold.incrementAndGet();
+				} catch (InsufficientStockException e) {
+					rejected.incrementAndGet();
+				}
+			}
+			return null;
+		});
+
+		assertEquals(50, sold.get());
+		assertEquals(THREADS * 25 - 50, rejected.get());
+		assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getQuantity());
+	}
+
+	@Test
+	@Description("Should apply a batch of stock adjustments all or nothing")
+	void batchAdjustmentsTest() throws Exception {
+		Product first = product(5);
+		Product second = product(1);
+
+		assertThrows(InsufficientStockException.class, () -> productService.adjustStock(
+				List.of(new StockAdjustmentDto(first.getId(), -2), new StockAdjustmentDto(second.getId(), -3))));
+		assertEquals(5, productRepository.findById(first.getId()).orElseThrow().getQuantity());
+		assertEquals(1, productRepository.findById(second.getId()).orElseThrow().getQuantity());
+
+		productService.adjustStock(List.of(new StockAdjustmentDto(first.getId(), -2),
+				new StockAdjustmentDto(second.getId(), -1), new StockAdjustmentDto(first.getId(), -1)));
+		assertEquals(2, productRepository.findById(first.getId()).orElseThrow().getQuantity());
+		assertEquals(0, productRepository.findById(second.getId()).orElseThrow().getQuantity());
+	}
+
+	@Test
+	@Description("Should evict the adjusted products of a batch once committed, not before")
+	void batchEvictionTest() throws Exception {
+		Product product = product(5);
+		ProductDto before = productService.getProduct(product.getId());
+		Cache cache = cacheManager.getCache(ProductService.PRODUCT_CACHE);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			try {
+				productService.adjustStock(List.of(new StockAdjustmentDto(product.getId(), -2)));
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+			// A concurrent read caching the committed row before the commit
+			cache.put(product.getId(), before);
+		});
+
+		assertNull(cache.get(product.getId()));
+		assertEquals(3, productService.getProduct(product.getId()).quantity());
+	}
+
+	private Product product(int quantity) {
+		return productRepository.save(Product.builder().name("Stock Product").category(Category.GAMES).priceMinor(1000L)
+				.quantity(quantity).build());
+	}
+
+	/**
+	 * Runs the task on the given number of threads, released at the same time,
+	 * and rethrows the first failure.
+	 */
+	private void runConcurrently(int threads, ThreadTask task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				int thread = i;
+				Callable<Void> callable = () -> {
+					start.await();
+					return task.run(thread);
+				};
+				futures.add(executor.submit(callable));
+			}
+			start.countDown();
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@FunctionalInterface
+	private interface ThreadTask {
+		Void run(int thread) throws Exception;
+	}
+}
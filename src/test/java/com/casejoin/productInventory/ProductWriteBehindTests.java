@@ -0,0 +1,247 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Description;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
+import com.casejoin.productInventory.exception.WriteQueueFullException;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.service.ProductWriteBehindQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"product.write-behind.enabled=true",
+		"product.write-behind.flush-interval=1h" })
+class ProductWriteBehindTests {
+
+	@Autowired
+	private ProductWriteBehindQueue writeBehindQueue;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@TempDir
+	private Path logDir;
+
+	private Product product;
+
+	@BeforeEach
+	public void setUp() {
+		writeBehindQueue.flush();
+		product = productRepository.save(Product.builder().name("Test Product").description("Description")
+				.brand("Brand").category(Category.GAMES).quantity(5).priceMinor(50000L).build());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		writeBehindQueue.flush();
+	}
+
+	@Test
+	@Description("Should coalesce the updates of a product field by field and write them with a single update")
+	void coalesceTest() throws Exception {
+		for (int i = 1; i <= 50; i++) {
+			writeBehindQueue.enqueue(product.getId(), new ProductDto(null, null, null, null, null, null,
+					BigDecimal.valueOf(i), null, null));
+		}
+		writeBehindQueue.enqueue(product.getId(), new ProductDto(null, "New name", null, null, null, 7, null, null,
+				null));
+
+		assertEquals(1, writeBehindQueue.getPendingCount());
+		assertEquals(1, writeBehindQueue.flush());
+
+		Product updated = productRepository.findById(product.getId()).orElseThrow();
+		assertEquals("New name", updated.getName());
+		assertEquals("Description", updated.getDescription());
+		assertEquals(7, updated.getQuantity());
+		assertEquals(5000L, updated.getPriceMinor());
+		assertEquals(product.getVersion() + 1, updated.getVersion());
+	}
+
+	@Test
+	@Description("Should drop the updates of missing products")
+	void missingProductTest() throws Exception {
+		ProductDto price = new ProductDto(null, null, null, null, null, null, new BigDecimal("10.00"), null,
+				null);
+		writeBehindQueue.enqueue(product.getId(), price);
+		writeBehindQueue.enqueue(UUID.randomUUID(), price);
+
+		assertEquals(1, writeBehindQueue.flush());
+		assertEquals(0, writeBehindQueue.getPendingCount());
+		assertEquals(1000L, productRepository.findById(product.getId()).orElseThrow().getPriceMinor());
+	}
+
+	@Test
+	@Description("Should reject updates of other products while the queue is full and the flusher is busy")
+	void backpressureTest() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ProductRepository slowRepository = mock(ProductRepository.class);
+		when(slowRepository.patchAll(any())).then(invocation -> {
+			release.await();
+			return new int[invocation.<SortedMap<?, ?>>getArgument(0).size()];
+		});
+
+		ProductWriteBehindQueue queue = new ProductWriteBehindQueue(slowRepository, transactionTemplate,
+				cacheManager, eventPublisher, objectMapper, new SimpleMeterRegistry(), 2, 2, Duration.ofHours(1),
+				Duration.ofMillis(50), "");
+		try {
+			ProductDto price = new ProductDto(null, null, null, null, null, null, new BigDecimal("10.00"),
+					null, null);
+			queue.enqueue(UUID.randomUUID(), price);
+			queue.enqueue(UUID.randomUUID(), price);
+			while (queue.getPendingCount() > 0) {
+				Thread.sleep(10);
+			}
+
+			UUID id = UUID.randomUUID();
+			queue.enqueue(id, price);
+			queue.enqueue(UUID.randomUUID(), price);
+			assertThrows(WriteQueueFullException.class, () -> queue.enqueue(UUID.randomUUID(), price));
+			queue.enqueue(id, new ProductDto(null, "New name", null, null, null, null, null, null, null));
+		} finally {
+			release.countDown();
+			queue.destroy();
+		}
+		assertEquals(0, queue.getPendingCount());
+		verify(slowRepository, times(2)).patchAll(any());
+	}
+
+	@Test
+	@Description("Should write the rows of a rejected batch one by one and drop the one the database keeps rejecting")
+	void poisonUpdateTest() throws Exception {
+		UUID poison = UUID.randomUUID();
+		ProductRepository rejectingRepository = mock(ProductRepository.class);
+		when(rejectingRepository.patchAll(any())).then(invocation -> {
+			SortedMap<UUID, ?> batch = invocation.getArgument(0);
+			if (batch.containsKey(poison)) {
+				throw new DataIntegrityViolationException("Value too long for column");
+			}
+			int[] rows = new int[batch.size()];
+			Arrays.fill(rows, 1);
+			return rows;
+		});
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ProductWriteBehindQueue queue = new ProductWriteBehindQueue(rejectingRepository, transactionTemplate,
+				cacheManager, eventPublisher, objectMapper, meterRegistry, 10, 10, Duration.ofHours(1),
+				Duration.ZERO, "");
+		try {
+			ProductDto price = new ProductDto(null, null, null, null, null, null, new BigDecimal("10.00"), null,
+					null);
+			queue.enqueue(UUID.randomUUID(), price);
+			queue.enqueue(poison, price);
+			queue.enqueue(UUID.randomUUID(), price);
+
+			assertEquals(2, queue.flush());
+			assertEquals(0, queue.getPendingCount());
+			assertEquals(1, meterRegistry.get("product.write-behind.dropped").counter().count());
+			// The batch, then each of its 3 rows
+			verify(rejectingRepository, times(4)).patchAll(any());
+		} finally {
+			queue.destroy();
+		}
+	}
+
+	@Test
+	@Description("Should reject updates with text longer than its column when accepting them")
+	void columnLengthTest() {
+		assertThrows(InvalidArgumentException.class, () -> writeBehindQueue.enqueue(product.getId(),
+				new ProductDto(null, "x".repeat(256), null, null, null, null, null, null, null)));
+		assertEquals(0, writeBehindQueue.getPendingCount());
+	}
+
+	@Test
+	@Description("Should reject a versioned update, which could not be checked against the version it is written over")
+	void versionedUpdateTest() throws Exception {
+		writeBehindQueue.enqueue(product.getId(), new ProductDto(null, "Newer name", null, null, null, null, null, null,
+				null));
+		writeBehindQueue.flush();
+
+		// The client read the product before the update above
+		assertThrows(InvalidArgumentException.class, () -> writeBehindQueue.enqueue(product.getId(),
+				new ProductDto(null, "Stale name", null, null, null, null, null, null, null, null,
+						product.getVersion())));
+		assertEquals(0, writeBehindQueue.getPendingCount());
+		assertEquals("Newer name", productRepository.findById(product.getId()).orElseThrow().getName());
+	}
+
+	@Test
+	@Description("Should replay the acknowledged updates of a crashed queue from its log, skipping a torn last line")
+	void durabilityTest() throws Exception {
+		ProductWriteBehindQueue crashed = newQueue();
+		crashed.enqueue(product.getId(), new ProductDto(null, null, null, null, Category.BOOKS, null,
+				new BigDecimal("20.00"), null, null));
+		try (Stream<Path> segments = Files.list(logDir)) {
+			Files.writeString(segments.findFirst().orElseThrow(), "{\"id\":\"", StandardCharsets.UTF_8,
+					StandardOpenOption.APPEND);
+		}
+
+		ProductWriteBehindQueue recovered = newQueue();
+		try {
+			assertEquals(1, recovered.getPendingCount());
+			assertEquals(1, recovered.flush());
+			try (Stream<Path> segments = Files.list(logDir)) {
+				assertEquals(1, segments.count());
+			}
+		} finally {
+			recovered.destroy();
+		}
+
+		Product updated = productRepository.findById(product.getId()).orElseThrow();
+		assertEquals(Category.BOOKS, updated.getCategory());
+		assertEquals(2000L, updated.getPriceMinor());
+	}
+
+	private ProductWriteBehindQueue newQueue() throws IOException {
+		return new ProductWriteBehindQueue(productRepository, transactionTemplate, cacheManager, eventPublisher,
+				objectMapper, new SimpleMeterRegistry(), 100, 10, Duration.ofHours(1), Duration.ZERO,
+				logDir.toString());
+	}
+}
@@ -0,0 +1,214 @@
+package com.casejoin.productInventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Description;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.casejoin.productInventory.dto.ProductDto;
+import com.casejoin.productInventory.enums.Category;
+import com.casejoin.productInventory.exception.CustomNotFoundException;
+import com.casejoin.productInventory.exception.InvalidArgumentException;
+import com.casejoin.productInventory.exception.RequiredArgumentsMissing;
+import com.casejoin.productInventory.model.Product;
+import com.casejoin.productInventory.repository.ProductRepository;
+import com.casejoin.productInventory.search.ProductFacetSummary;
+import com.casejoin.productInventory.search.ProductSearchIndex;
+import com.casejoin.productInventory.service.ProductService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the SQL statements of the write operations at the JDBC level, so
+ * that statements issued outside Hibernate, such as the outbox insert, are
+ * counted too; Hibernate statistics tell whether entities were loaded. The
+ * search index and the facet summary, which re-read updated products after
+ * commit, are mocked out, and the outbox relay, which reads the changed
+ * products in the background, is off, so only the write path itself is
+ * counted.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"product.outbox.relay.enabled=false" })
+@Import(ProductWriteTests.StatementCounter.class)
+class ProductWriteTests {
+
+	/**
+	 * Wraps the data source to count the statements prepared on its
+	 * connections.
+	 */
+	static class StatementCounter implements BeanPostProcessor {
+
+		static final AtomicInteger PREPARED = new AtomicInteger();
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (!(bean instanceof DataSource dataSource)) {
+				return bean;
+			}
+			return proxy(DataSource.class, dataSource, (target, method, args) -> {
+				Object result = invoke(target, method, args);
+				return result instanceof Connection connection
+						? proxy(Connection.class, connection, (conn, connectionMethod, connectionArgs) -> {
+							if (connectionMethod.getName().startsWith("prepare")
+									|| connectionMethod.getName().equals("createStatement")) {
+								PREPARED.incrementAndGet();
+							}
+							return invoke(conn, connectionMethod, connectionArgs);
+						})
+						: result;
+			});
+		}
+
+		private interface Handler<T> {
+			Object invoke(T target, Method method, Object[] args) throws Throwable;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+			return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+					(proxy, method, args) -> handler.invoke(target, method, args));
+		}
+
+		private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	@MockBean
+	private ProductSearchIndex productSearchIndex;
+
+	@MockBean
+	private ProductFacetSummary productFacetSummary;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private Product product;
+
+	@BeforeEach
+	public void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		product = productRepository.save(Product.builder().name("Test Product").description("Description")
+				.brand("Brand").category(Category.GAMES).quantity(5).priceMinor(50000L).build());
+		statistics.clear();
+		StatementCounter.PREPARED.set(0);
+	}
+
+	@Test
+	@Description("Should create a product with two statements: the product and the outbox inserts")
+	void createTest() throws RequiredArgumentsMissing, InvalidArgumentException {
+		productService.createProduct(new ProductDto(null, "New Product", null, null, Category.TOYS, 1,
+				new BigDecimal("10.00"), null, null));
+
+		assertEquals(2, StatementCounter.PREPARED.get());
+	}
+
+	@Test
+	@Description("Should delete a product with two statements: the delete and the outbox insert")
+	void deleteTest() throws RequiredArgumentsMissing, CustomNotFoundException {
+		productService.deleteProduct(product.getId());
+
+		assertEquals(2, StatementCounter.PREPARED.get());
+		assertFalse(productRepository.existsById(product.getId()));
+	}
+
+	@Test
+	@Description("Should fail with not found when deleting a missing product, with a single statement")
+	void deleteMissingTest() {
+		assertThrows(CustomNotFoundException.class, () -> productService.deleteProduct(UUID.randomUUID()));
+
+		assertEquals(1, StatementCounter.PREPARED.get());
+	}
+
+	@Test
+	@Description("Should update a product with two statements, the update and the outbox insert, without loading it")
+	void updateTest() throws RequiredArgumentsMissing, CustomNotFoundException, InvalidArgumentException {
+		productService.updateProduct(new ProductDto(product.getId(), "New name", null, "New brand", Category.BOOKS,
+				null, new BigDecimal("10.00"), null, null));
+
+		assertEquals(2, StatementCounter.PREPARED.get());
+		assertEquals(0, statistics.getEntityLoadCount());
+
+		Product updated = productRepository.findById(product.getId()).orElseThrow();
+		assertEquals("New name", updated.getName());
+		assertEquals(null, updated.getDescription());
+		assertEquals(Category.BOOKS, updated.getCategory());
+		assertEquals(5, updated.getQuantity());
+		assertEquals(product.getVersion() + 1, updated.getVersion());
+	}
+
+	@Test
+	@Description("Should only change the provided fields of a partial update, with two statements")
+	void patchTest() throws RequiredArgumentsMissing, CustomNotFoundException, InvalidArgumentException {
+		productService.patchProduct(product.getId(),
+				new ProductDto(null, null, null, null, null, null, new BigDecimal("20.00"), null, null));
+
+		assertEquals(2, StatementCounter.PREPARED.get());
+		assertEquals(0, statistics.getEntityLoadCount());
+
+		Product updated = productRepository.findById(product.getId()).orElseThrow();
+		assertEquals("Test Product", updated.getName());
+		assertEquals("Description", updated.getDescription());
+		assertEquals(2000L, updated.getPriceMinor());
+	}
+
+	@Test
+	@Description("Should reject the second of two updates of the same version, keeping the first")
+	void conflictingUpdatesTest() throws RequiredArgumentsMissing, CustomNotFoundException, InvalidArgumentException {
+		long version = product.getVersion();
+		productService.updateProduct(new ProductDto(product.getId(), "First", null, "Brand", Category.GAMES, null,
+				new BigDecimal("10.00"), null, null, null, version));
+		assertEquals(2, StatementCounter.PREPARED.get());
+
+		assertThrows(ObjectOptimisticLockingFailureException.class,
+				() -> productService.updateProduct(new ProductDto(product.getId(), "Second", null, "Brand",
+						Category.GAMES, null, new BigDecimal("20.00"), null, null, null, version)));
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> productService.patchProduct(product.getId(),
+				new ProductDto(null, "Third", null, null, null, null, null, null, null, null, version)));
+
+		Product updated = productRepository.findById(product.getId()).orElseThrow();
+		assertEquals("First", updated.getName());
+		assertEquals(version + 1, updated.getVersion());
+	}
+
+	@Test
+	@Description("Should fail with not found when updating a missing product")
+	void patchMissingTest() {
+		assertThrows(CustomNotFoundException.class, () -> productService.patchProduct(UUID.randomUUID(),
+				new ProductDto(null, "New name", null, null, null, null, null, null, null)));
+	}
+}